@@ -0,0 +1,51 @@
+// Carga de leitura autenticada para comparar latencia entre threads de plataforma e threads virtuais.
+//
+// k6 run -e BASE_URL=http://localhost:8080 -e VUS=400 docs/loadtest/request-latency.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = parseInt(__ENV.VUS || '400', 10);
+
+export const options = {
+    scenarios: {
+        reads: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: VUS },
+                { duration: __ENV.DURATION || '2m', target: VUS },
+                { duration: '15s', target: 0 },
+            ],
+            gracefulRampDown: '10s',
+        },
+    },
+    summaryTrendStats: ['avg', 'med', 'p(90)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+    const login = http.post(`${BASE_URL}/api/v1/auth/login`,
+        JSON.stringify({ username: __ENV.USERNAME || 'admin', password: __ENV.PASSWORD || 'admin123' }),
+        { headers: { 'Content-Type': 'application/json' } });
+    check(login, { 'login 200': (r) => r.status === 200 });
+
+    const token = login.json('accessToken');
+    const albums = http.get(`${BASE_URL}/api/v1/albums?size=20`, { headers: { Authorization: `Bearer ${token}` } });
+    const albumIds = albums.json('content').map((album) => album.id);
+
+    return { token, albumIds };
+}
+
+export default function (data) {
+    const params = { headers: { Authorization: `Bearer ${data.token}` } };
+    const albumId = data.albumIds[Math.floor(Math.random() * data.albumIds.length)];
+
+    const responses = http.batch([
+        ['GET', `${BASE_URL}/api/v1/artists?size=20`, null, Object.assign({ tags: { name: 'artists' } }, params)],
+        ['GET', `${BASE_URL}/api/v1/albums/${albumId}`, null, Object.assign({ tags: { name: 'album' } }, params)],
+        ['GET', `${BASE_URL}/api/v1/albums/${albumId}/images`, null, Object.assign({ tags: { name: 'album-images' } }, params)],
+        ['GET', `${BASE_URL}/api/v1/regions/active`, null, Object.assign({ tags: { name: 'regions' } }, params)],
+    ]);
+
+    responses.forEach((response) => check(response, { 'status 200': (r) => r.status === 200 }));
+}
@@ -0,0 +1,156 @@
+package com.shedyhuseinsinkoc035209.benchmark;
+
+import com.shedyhuseinsinkoc035209.dto.AlbumArtistName;
+import com.shedyhuseinsinkoc035209.dto.AlbumResponse;
+import com.shedyhuseinsinkoc035209.dto.ArtistResponse;
+import com.shedyhuseinsinkoc035209.entity.Album;
+import com.shedyhuseinsinkoc035209.entity.Artist;
+import com.shedyhuseinsinkoc035209.repository.AlbumRepository;
+import com.shedyhuseinsinkoc035209.repository.ArtistRepository;
+import com.shedyhuseinsinkoc035209.service.AlbumService;
+import com.shedyhuseinsinkoc035209.service.ArtistService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Heap allocated per page of albums/artists served.
+ *
+ * <p>{@code *Entities} reproduces the previous read path (managed entities mapped to responses inside a read-write
+ * transaction, artist names loaded per page); {@code *Projections} is the current one (constructor projections in a
+ * read-only transaction). Compare {@code gc.alloc.rate.norm}. Needs Docker: the schema comes from the Flyway migrations on a PostgreSQL container.
+ *
+ * <pre>./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.args="AlbumReadBenchmark -prof gc"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AlbumReadBenchmark {
+
+    private static final int SEEDED_ALBUMS = 500;
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private PostgreSQLContainer postgres;
+    private ConfigurableApplicationContext context;
+    private AlbumRepository albumRepository;
+    private ArtistRepository artistRepository;
+    private AlbumService albumService;
+    private ArtistService artistService;
+    private TransactionTemplate readWriteTransaction;
+    private PageRequest page;
+
+    @Setup
+    public void setUp() {
+        postgres = new PostgreSQLContainer("postgres:15-alpine");
+        postgres.start();
+
+        context = new SpringApplicationBuilder(PersistenceOnly.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.jpa.open-in-view=false",
+                        "logging.level.root=WARN")
+                .run();
+
+        albumRepository = context.getBean(AlbumRepository.class);
+        artistRepository = context.getBean(ArtistRepository.class);
+        albumService = new AlbumService(albumRepository, artistRepository, mock(SimpMessagingTemplate.class));
+        artistService = context.getBean(ArtistService.class);
+        readWriteTransaction = context.getBean(TransactionTemplate.class);
+        page = PageRequest.of(0, pageSize);
+
+        seedAlbums();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public List<AlbumResponse> albumPageEntities() {
+        return readWriteTransaction.execute(status -> {
+            Page<Album> albums = albumRepository.findAll(page);
+            Map<UUID, List<String>> artistNames = new HashMap<>();
+            for (AlbumArtistName row : albumRepository.findArtistNamesByAlbumIds(albums.map(Album::getId).getContent())) {
+                artistNames.computeIfAbsent(row.albumId(), id -> new ArrayList<>()).add(row.artistName());
+            }
+            return albums.map(album -> AlbumResponse.fromEntity(album, artistNames.getOrDefault(album.getId(), List.of())))
+                    .getContent();
+        });
+    }
+
+    @Benchmark
+    public List<AlbumResponse> albumPageProjections() {
+        return albumService.findAll(page).getContent();
+    }
+
+    @Benchmark
+    public List<ArtistResponse> artistPageEntities() {
+        return readWriteTransaction.execute(status -> artistRepository.findAll(page).map(ArtistResponse::fromEntity).getContent());
+    }
+
+    @Benchmark
+    public List<ArtistResponse> artistPageProjections() {
+        return artistService.findAll(page).getContent();
+    }
+
+    private void seedAlbums() {
+        UUID serjTankian = UUID.fromString("a1111111-1111-1111-1111-111111111111");
+        readWriteTransaction.executeWithoutResult(status -> {
+            Artist artist = artistRepository.findById(serjTankian).orElseThrow();
+            IntStream.range(0, SEEDED_ALBUMS).forEach(i -> {
+                Album album = albumRepository.save(new Album("Benchmark Album " + i, 2000 + i % 25));
+                album.addArtist(artist);
+            });
+        });
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Album.class)
+    @EnableJpaRepositories(basePackageClasses = AlbumRepository.class)
+    @Import(ArtistService.class)
+    static class PersistenceOnly {
+    }
+}
@@ -0,0 +1,66 @@
+package com.shedyhuseinsinkoc035209.benchmark;
+
+import com.shedyhuseinsinkoc035209.util.JwtUtil;
+import com.shedyhuseinsinkoc035209.util.VerifiedToken;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a bearer token.
+ *
+ * <p>{@code rebuildKeyAndParseTwice} reproduces the previous filter path (key derivation and parser
+ * construction on every call, token parsed once to validate and again to read the subject);
+ * {@code verifyOnce} is the current path.
+ *
+ * <pre>./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.args="JwtUtilBenchmark -prof gc"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "mySuperSecretKeyForJwtTokenGenerationThatIsLongEnough123456";
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 300000L, 86400000L);
+        token = jwtUtil.generateToken("admin", "ADMIN");
+    }
+
+    @Benchmark
+    public String rebuildKeyAndParseTwice() {
+        Jwts.parser().verifyWith(legacySigningKey()).build().parseSignedClaims(token);
+        return Jwts.parser().verifyWith(legacySigningKey()).build().parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String verifyOnce() {
+        Optional<VerifiedToken> verified = jwtUtil.verify(token);
+        return verified.map(VerifiedToken::subject).orElse(null);
+    }
+
+    private static SecretKey legacySigningKey() {
+        return Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    }
+}
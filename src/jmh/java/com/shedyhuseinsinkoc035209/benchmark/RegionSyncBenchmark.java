@@ -0,0 +1,162 @@
+package com.shedyhuseinsinkoc035209.benchmark;
+
+import com.shedyhuseinsinkoc035209.dto.RegionExternalDto;
+import com.shedyhuseinsinkoc035209.dto.RegionFetchResult;
+import com.shedyhuseinsinkoc035209.entity.Region;
+import com.shedyhuseinsinkoc035209.repository.RegionRepository;
+import com.shedyhuseinsinkoc035209.repository.RegionSyncStateRepository;
+import com.shedyhuseinsinkoc035209.service.RegionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Time to synchronize the regions table with an external list of {@code regionCount} regions, where a tenth of the
+ * regions are renamed, a tenth removed and a tenth are new.
+ *
+ * <p>{@code perRowSave} reproduces the previous implementation (one {@code save} per changed row, unbatched because of
+ * the IDENTITY key); {@code setBased} is the current {@link RegionService#synchronize()}. Run with several region
+ * counts to see how each grows. Needs Docker: the schema comes from the Flyway migrations on a PostgreSQL container.
+ *
+ * <pre>./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.args="RegionSyncBenchmark"</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegionSyncBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    private int regionCount;
+
+    private PostgreSQLContainer postgres;
+    private ConfigurableApplicationContext context;
+    private RegionRepository regionRepository;
+    private RegionService regionService;
+    private TransactionTemplate transaction;
+    private JdbcTemplate jdbcTemplate;
+    private List<RegionExternalDto> externalRegions;
+
+    @Setup
+    public void setUp() {
+        postgres = new PostgreSQLContainer("postgres:15-alpine");
+        postgres.start();
+
+        context = new SpringApplicationBuilder(PersistenceOnly.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.jpa.open-in-view=false",
+                        "logging.level.root=WARN")
+                .run();
+
+        regionRepository = context.getBean(RegionRepository.class);
+        transaction = context.getBean(TransactionTemplate.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        externalRegions = externalRegions(regionCount);
+        regionService = new RegionService(regionRepository, applied -> RegionFetchResult.changed(externalRegions),
+                context.getBean(RegionSyncStateRepository.class), context.getBean(PlatformTransactionManager.class));
+    }
+
+    /**
+     * Every invocation starts from the same table: {@code regionCount} active regions and no history.
+     */
+    @Setup(Level.Invocation)
+    public void resetRegions() {
+        jdbcTemplate.execute("TRUNCATE regions RESTART IDENTITY");
+        jdbcTemplate.update("INSERT INTO regions (external_id, name, active) "
+                + "SELECT g, 'Regional ' || g, TRUE FROM generate_series(1, ?) g", regionCount);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public List<Region> perRowSave() {
+        return transaction.execute(status -> {
+            Map<Integer, Region> activeRegionsMap = regionRepository.findByActiveTrue().stream()
+                    .collect(Collectors.toMap(Region::getExternalId, Function.identity()));
+            Set<Integer> externalIds = externalRegions.stream().map(RegionExternalDto::id).collect(Collectors.toSet());
+
+            for (RegionExternalDto dto : externalRegions) {
+                Region existing = activeRegionsMap.get(dto.id());
+                if (existing == null) {
+                    regionRepository.save(new Region(dto.id(), dto.nome(), true));
+                } else if (existing.hasNameChanged(dto.nome())) {
+                    existing.deactivate();
+                    regionRepository.save(existing);
+                    regionRepository.save(new Region(dto.id(), dto.nome(), true));
+                }
+            }
+            for (Map.Entry<Integer, Region> entry : activeRegionsMap.entrySet()) {
+                if (!externalIds.contains(entry.getKey())) {
+                    entry.getValue().deactivate();
+                    regionRepository.save(entry.getValue());
+                }
+            }
+            return regionRepository.findByActiveTrue();
+        });
+    }
+
+    @Benchmark
+    public List<Region> setBased() {
+        return transaction.execute(status -> regionService.synchronize().activeRegions());
+    }
+
+    private static List<RegionExternalDto> externalRegions(int regionCount) {
+        List<RegionExternalDto> regions = new ArrayList<>(regionCount + regionCount / 10);
+        for (int id = 1; id <= regionCount; id++) {
+            if (id % 10 == 1) {
+                continue;
+            }
+            regions.add(new RegionExternalDto(id, id % 10 == 2 ? "Regional " + id + " (renomeada)" : "Regional " + id));
+        }
+        for (int id = regionCount + 1; id <= regionCount + regionCount / 10; id++) {
+            regions.add(new RegionExternalDto(id, "Regional " + id));
+        }
+        return regions;
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Region.class)
+    @EnableJpaRepositories(basePackageClasses = RegionRepository.class)
+    static class PersistenceOnly {
+    }
+}
@@ -1,10 +1,12 @@
 package com.shedyhuseinsinkoc035209.client;
 
-import com.shedyhuseinsinkoc035209.dto.RegionExternalDto;
-
-import java.util.List;
+import com.shedyhuseinsinkoc035209.dto.RegionFetchResult;
+import com.shedyhuseinsinkoc035209.dto.RegionValidators;
 
 public interface RegionExternalClient {
 
-    List<RegionExternalDto> fetchRegions();
+    /**
+     * Returns {@link RegionFetchResult#unchanged()} when the list is the same as the one described by {@code applied}.
+     */
+    RegionFetchResult fetchRegions(RegionValidators applied);
 }
@@ -1,36 +1,111 @@
 package com.shedyhuseinsinkoc035209.client;
 
 import com.shedyhuseinsinkoc035209.dto.RegionExternalDto;
+import com.shedyhuseinsinkoc035209.dto.RegionFetchResult;
+import com.shedyhuseinsinkoc035209.dto.RegionValidators;
 import com.shedyhuseinsinkoc035209.exception.ExternalApiException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.function.Function;
 
 @Component
 public class RegionExternalClientImpl implements RegionExternalClient {
 
+    private static final TypeReference<List<RegionExternalDto>> REGION_LIST = new TypeReference<>() {};
+
     private final RestClient restClient;
+    // The application mapper, so the body is read with the same settings as the RestClient message converter
+    private final JsonMapper jsonMapper;
     private final String externalApiUrl;
+    private final Function<RegionValidators, RegionFetchResult> resilientFetch;
 
-    public RegionExternalClientImpl(@Value("${region.external.api.url}") String externalApiUrl) {
+    public RegionExternalClientImpl(@Value("${region.external.api.url}") String externalApiUrl, RestClient regionRestClient,
+                                    JsonMapper jsonMapper, CircuitBreaker regionApiCircuitBreaker, Retry regionApiRetry) {
         this.externalApiUrl = externalApiUrl;
-        this.restClient = RestClient.create();
+        this.restClient = regionRestClient;
+        this.jsonMapper = jsonMapper;
+        // Every attempt goes through the breaker, so retries of a failing upstream also count towards opening it
+        this.resilientFetch = Retry.decorateFunction(regionApiRetry,
+                CircuitBreaker.decorateFunction(regionApiCircuitBreaker, this::fetch));
     }
 
+    /**
+     * Sends the ETag and Last-Modified of the applied answer, so an unchanged list costs a 304 without a body. The
+     * body is hashed before it is parsed, which also catches an identical list from a server without validators.
+     * Transient failures are retried with backoff, and an open circuit breaker fails the call without a request.
+     */
     @Override
-    public List<RegionExternalDto> fetchRegions() {
-        List<RegionExternalDto> regions = restClient.get()
+    public RegionFetchResult fetchRegions(RegionValidators applied) {
+        try {
+            return resilientFetch.apply(applied);
+        } catch (CallNotPermittedException e) {
+            throw new ExternalApiException("Regions API is unavailable, skipping calls until it recovers", e);
+        } catch (RestClientException e) {
+            throw new ExternalApiException("Failed to fetch regions from external API: " + e.getMessage(), e);
+        }
+    }
+
+    private RegionFetchResult fetch(RegionValidators previous) {
+        ResponseEntity<byte[]> response = restClient.get()
                 .uri(externalApiUrl)
+                .headers(headers -> {
+                    if (previous.etag() != null) {
+                        headers.set(HttpHeaders.IF_NONE_MATCH, previous.etag());
+                    }
+                    if (previous.lastModified() != null) {
+                        headers.set(HttpHeaders.IF_MODIFIED_SINCE, previous.lastModified());
+                    }
+                })
                 .retrieve()
-                .body(new ParameterizedTypeReference<List<RegionExternalDto>>() {});
+                .toEntity(byte[].class);
 
+        if (response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            return RegionFetchResult.unchanged();
+        }
+        byte[] body = response.getBody();
+        if (body == null) {
+            throw new ExternalApiException("Failed to fetch regions from external API");
+        }
+        String contentHash = sha256(body);
+        if (contentHash.equals(previous.contentHash())) {
+            return RegionFetchResult.unchanged();
+        }
+
+        List<RegionExternalDto> regions;
+        try {
+            regions = jsonMapper.readValue(body, REGION_LIST);
+        } catch (JacksonException e) {
+            throw new ExternalApiException("Failed to read regions from external API: " + e.getOriginalMessage(), e);
+        }
         if (regions == null) {
             throw new ExternalApiException("Failed to fetch regions from external API");
         }
 
-        return regions;
+        HttpHeaders headers = response.getHeaders();
+        return new RegionFetchResult(regions, headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED), contentHash);
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
@@ -0,0 +1,32 @@
+package com.shedyhuseinsinkoc035209.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ImageRenditionConfig {
+
+    @Value("${album-images.renditions.concurrency:2}")
+    private int concurrency;
+
+    @Value("${album-images.renditions.queue-capacity:100}")
+    private int queueCapacity;
+
+    /**
+     * Decoding and resizing is CPU and memory heavy, so both the workers and the backlog are bounded; submissions past
+     * the queue capacity are rejected instead of piling up.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService imageRenditionExecutor() {
+        return new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("image-rendition-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
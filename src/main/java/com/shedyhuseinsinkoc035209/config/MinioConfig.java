@@ -5,6 +5,11 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class MinioConfig {
 
@@ -17,6 +22,12 @@ public class MinioConfig {
     @Value("${minio.secret-key}")
     private String secretKey;
 
+    @Value("${minio.upload.concurrency:4}")
+    private int uploadConcurrency;
+
+    @Value("${minio.upload.queue-capacity:50}")
+    private int uploadQueueCapacity;
+
     @Bean
     public MinioClient minioClient() {
         return MinioClient.builder()
@@ -24,4 +35,16 @@ public class MinioConfig {
                 .credentials(accessKey, secretKey)
                 .build();
     }
+
+    /**
+     * Each queued upload keeps its multipart file alive, so the backlog is bounded like the workers; uploads past the
+     * queue capacity are rejected instead of piling up.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService minioUploadExecutor() {
+        return new ThreadPoolExecutor(uploadConcurrency, uploadConcurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(uploadQueueCapacity),
+                Thread.ofPlatform().name("minio-upload-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
 }
@@ -0,0 +1,118 @@
+package com.shedyhuseinsinkoc035209.config;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRetryMetrics;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+@Configuration
+public class RegionExternalClientConfig {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RegionExternalClientConfig.class);
+
+    static final String REGION_API = "regionExternalApi";
+
+    @Value("${region.external.api.connect-timeout:2s}")
+    private Duration connectTimeout;
+
+    @Value("${region.external.api.read-timeout:5s}")
+    private Duration readTimeout;
+
+    @Value("${region.external.api.retry.max-attempts:3}")
+    private int retryMaxAttempts;
+
+    @Value("${region.external.api.retry.initial-backoff:200ms}")
+    private Duration retryInitialBackoff;
+
+    @Value("${region.external.api.retry.multiplier:2}")
+    private double retryMultiplier;
+
+    @Value("${region.external.api.circuit-breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${region.external.api.circuit-breaker.sliding-window-size:10}")
+    private int slidingWindowSize;
+
+    @Value("${region.external.api.circuit-breaker.minimum-number-of-calls:5}")
+    private int minimumNumberOfCalls;
+
+    @Value("${region.external.api.circuit-breaker.wait-duration-in-open-state:30s}")
+    private Duration waitDurationInOpenState;
+
+    /**
+     * One shared JDK HttpClient keeps its connections alive between calls and negotiates HTTP/2 when the server offers
+     * it. The read timeout bounds how long a hung upstream can hold the calling thread.
+     */
+    @Bean
+    public RestClient regionRestClient() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        return RestClient.builder()
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    @Bean
+    public CircuitBreaker regionApiCircuitBreaker(MeterRegistry meterRegistry) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .waitDurationInOpenState(waitDurationInOpenState)
+                .permittedNumberOfCallsInHalfOpenState(1)
+                .recordException(RegionExternalClientConfig::isTransientFailure)
+                .build());
+        CircuitBreaker circuitBreaker = registry.circuitBreaker(REGION_API);
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                LOG.warn("Region API circuit breaker changed state: {}", event.getStateTransition()));
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return circuitBreaker;
+    }
+
+    /**
+     * Only the GET for the region list goes through this retry, and it is idempotent. Calls rejected by an open
+     * circuit breaker are not transient failures, so they fail at once instead of being retried.
+     */
+    @Bean
+    public Retry regionApiRetry(MeterRegistry meterRegistry) {
+        RetryRegistry registry = RetryRegistry.of(RetryConfig.custom()
+                .maxAttempts(retryMaxAttempts)
+                .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(retryInitialBackoff, retryMultiplier, 0.5))
+                .retryOnException(RegionExternalClientConfig::isTransientFailure)
+                .build());
+        Retry retry = registry.retry(REGION_API);
+        TaggedRetryMetrics.ofRetryRegistry(registry).bindTo(meterRegistry);
+        return retry;
+    }
+
+    // Timeouts, refused connections, 5xx and 429; any other 4xx or an unreadable body will not get better by retrying
+    private static boolean isTransientFailure(Throwable e) {
+        return e instanceof ResourceAccessException
+                || e instanceof HttpServerErrorException
+                || e instanceof HttpClientErrorException.TooManyRequests;
+    }
+}
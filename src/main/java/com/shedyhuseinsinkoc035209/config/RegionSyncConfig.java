@@ -0,0 +1,19 @@
+package com.shedyhuseinsinkoc035209.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+@Configuration
+public class RegionSyncConfig {
+
+    /**
+     * One thread is enough: a run reschedules the next one only when it finishes, so scheduled runs never overlap.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ScheduledExecutorService regionSyncScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("region-sync-", 0).factory());
+    }
+}
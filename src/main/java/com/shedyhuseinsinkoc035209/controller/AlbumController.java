@@ -2,6 +2,7 @@ package com.shedyhuseinsinkoc035209.controller;
 
 import com.shedyhuseinsinkoc035209.dto.AlbumRequest;
 import com.shedyhuseinsinkoc035209.dto.AlbumResponse;
+import com.shedyhuseinsinkoc035209.dto.CursorPage;
 import com.shedyhuseinsinkoc035209.entity.ArtistType;
 import com.shedyhuseinsinkoc035209.service.AlbumService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -55,6 +56,17 @@ public class AlbumController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "Listar álbuns por cursor",
+            description = "Lista álbuns ordenados por título usando paginação por cursor (sem contagem total). "
+                    + "Envie o nextCursor da resposta anterior para obter a próxima página")
+    public ResponseEntity<CursorPage<AlbumResponse>> findAllByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<AlbumResponse> response = albumService.findAllByCursor(cursor, size);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/type/{type}")
     @Operation(summary = "Buscar álbuns por tipo de artista", description = "Busca álbuns pelo tipo do artista (SOLO ou BAND)")
     public ResponseEntity<Page<AlbumResponse>> findByArtistType(@PathVariable ArtistType type, Pageable pageable) {
@@ -63,7 +75,8 @@ public class AlbumController {
     }
 
     @GetMapping("/artist")
-    @Operation(summary = "Buscar álbuns por nome do artista", description = "Busca álbuns pelo nome do artista")
+    @Operation(summary = "Buscar álbuns por nome do artista",
+            description = "Busca álbuns pelo nome do artista com ordenação: asc, desc ou relevance (artista mais parecido com o termo primeiro)")
     public ResponseEntity<Page<AlbumResponse>> findByArtistName(
             @RequestParam String name,
             @RequestParam(defaultValue = "asc") String order,
@@ -1,9 +1,17 @@
 package com.shedyhuseinsinkoc035209.controller;
 
 import com.shedyhuseinsinkoc035209.dto.AlbumImageResponse;
+import com.shedyhuseinsinkoc035209.dto.ImageUploadCompletion;
+import com.shedyhuseinsinkoc035209.dto.ImageUploadRequest;
+import com.shedyhuseinsinkoc035209.dto.ImageUploadTicket;
+import com.shedyhuseinsinkoc035209.dto.StoredObject;
 import com.shedyhuseinsinkoc035209.service.AlbumImageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -11,11 +19,17 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
 import java.util.UUID;
 
@@ -24,6 +38,10 @@ import java.util.UUID;
 @Tag(name = "Imagens de Álbuns", description = "Endpoints para gerenciamento de imagens de álbuns")
 public class AlbumImageController {
 
+    // The endpoint requires a token, so only the caller's own cache may keep the bytes; after max-age the ETag turns
+    // the check into a 304, and a deleted image stops being served within the same bound
+    private static final CacheControl IMAGE_CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(30)).cachePrivate();
+
     private final AlbumImageService albumImageService;
 
     public AlbumImageController(AlbumImageService albumImageService) {
@@ -39,6 +57,37 @@ public class AlbumImageController {
         return ResponseEntity.status(HttpStatus.CREATED).body(responses);
     }
 
+    @PutMapping(value = "/{albumId}/images/stream", consumes = "image/*")
+    @Operation(summary = "Upload por streaming",
+            description = "Envia o corpo da requisição ao MinIO em partes, sem gravar em disco, respeitando o tamanho máximo")
+    public ResponseEntity<AlbumImageResponse> uploadImageStream(
+            @PathVariable UUID albumId,
+            @RequestParam String fileName,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+            InputStream body) {
+        AlbumImageResponse response = albumImageService.uploadImageStream(albumId, fileName,
+                contentType.getType() + "/" + contentType.getSubtype(), contentLength != null ? contentLength : -1, body);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @PostMapping("/{albumId}/images/uploads")
+    @Operation(summary = "Solicitar upload direto",
+            description = "Gera uma política de POST pré-assinada para enviar a imagem direto ao MinIO, limitada em tipo e tamanho")
+    public ResponseEntity<ImageUploadTicket> createUploadTicket(@PathVariable UUID albumId,
+                                                                @Valid @RequestBody ImageUploadRequest request) {
+        return ResponseEntity.ok(albumImageService.createUploadTicket(albumId, request));
+    }
+
+    @PostMapping("/{albumId}/images/uploads/complete")
+    @Operation(summary = "Concluir upload direto",
+            description = "Confirma que o objeto enviado ao MinIO existe e registra a imagem no álbum")
+    public ResponseEntity<AlbumImageResponse> completeUpload(@PathVariable UUID albumId,
+                                                             @Valid @RequestBody ImageUploadCompletion completion) {
+        AlbumImageResponse response = albumImageService.completeUpload(albumId, completion);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
     @GetMapping("/{albumId}/images")
     @Operation(summary = "Listar imagens do álbum", description = "Lista todas as imagens de um álbum com URLs pré-assinadas")
     public ResponseEntity<List<AlbumImageResponse>> getImagesByAlbumId(@PathVariable UUID albumId) {
@@ -46,10 +95,93 @@ public class AlbumImageController {
         return ResponseEntity.ok(responses);
     }
 
+    @GetMapping("/images/{imageId}/content")
+    @Operation(summary = "Conteúdo da imagem",
+            description = "Transmite os bytes da imagem com suporte a Range, ETag/If-None-Match (304) e cache privado no cliente")
+    public ResponseEntity<StreamingResponseBody> getImageContent(@PathVariable UUID imageId,
+                                                                 @RequestHeader HttpHeaders headers) {
+        StoredObject object = albumImageService.getImageContent(imageId);
+
+        if (isNotModified(headers, object)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(object.etag())
+                    .lastModified(object.lastModified())
+                    .cacheControl(IMAGE_CACHE_CONTROL)
+                    .build();
+        }
+
+        HttpRange range = singleRange(headers);
+        if (range == null) {
+            return contentResponse(HttpStatus.OK, object)
+                    .contentLength(object.size())
+                    .body(stream(object, 0, object.size()));
+        }
+
+        long start;
+        long end;
+        try {
+            start = range.getRangeStart(object.size());
+            end = range.getRangeEnd(object.size());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + object.size())
+                    .build();
+        }
+
+        long length = end - start + 1;
+        return contentResponse(HttpStatus.PARTIAL_CONTENT, object)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + object.size())
+                .contentLength(length)
+                .body(stream(object, start, length));
+    }
+
     @DeleteMapping("/images/{imageId}")
     @Operation(summary = "Excluir imagem", description = "Remove uma imagem do álbum e do MinIO")
     public ResponseEntity<Void> deleteImage(@PathVariable UUID imageId) {
         albumImageService.deleteImage(imageId);
         return ResponseEntity.noContent().build();
     }
+
+    private static ResponseEntity.BodyBuilder contentResponse(HttpStatus status, StoredObject object) {
+        MediaType contentType = object.contentType() != null
+                ? MediaType.parseMediaType(object.contentType())
+                : MediaType.APPLICATION_OCTET_STREAM;
+        return ResponseEntity.status(status)
+                .eTag(object.etag())
+                .lastModified(object.lastModified())
+                .cacheControl(IMAGE_CACHE_CONTROL)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentType(contentType);
+    }
+
+    // Opened lazily so a 304 or a failed precondition never touches the object store
+    private StreamingResponseBody stream(StoredObject object, long offset, long length) {
+        return outputStream -> {
+            try (InputStream inputStream = albumImageService.openImageContent(object, offset, length)) {
+                inputStream.transferTo(outputStream);
+            }
+        };
+    }
+
+    private static boolean isNotModified(HttpHeaders headers, StoredObject object) {
+        List<String> ifNoneMatch = headers.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            String etag = "\"" + object.etag() + "\"";
+            return ifNoneMatch.stream()
+                    .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                    .anyMatch(tag -> tag.equals("*") || tag.equals(etag));
+        }
+        long ifModifiedSince = headers.getIfModifiedSince();
+        return ifModifiedSince >= 0 && object.lastModified().getEpochSecond() * 1000 <= ifModifiedSince;
+    }
+
+    // Multipart byteranges is not worth supporting for images; a malformed or multi-range header gets the full body
+    private static HttpRange singleRange(HttpHeaders headers) {
+        try {
+            List<HttpRange> ranges = headers.getRange();
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
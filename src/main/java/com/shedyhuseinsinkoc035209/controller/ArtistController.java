@@ -2,6 +2,8 @@ package com.shedyhuseinsinkoc035209.controller;
 
 import com.shedyhuseinsinkoc035209.dto.ArtistRequest;
 import com.shedyhuseinsinkoc035209.dto.ArtistResponse;
+import com.shedyhuseinsinkoc035209.dto.ArtistSuggestion;
+import com.shedyhuseinsinkoc035209.dto.CursorPage;
 import com.shedyhuseinsinkoc035209.entity.ArtistType;
 import com.shedyhuseinsinkoc035209.service.ArtistService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -21,6 +23,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -55,8 +58,20 @@ public class ArtistController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "Listar artistas por cursor",
+            description = "Lista artistas ordenados por nome usando paginação por cursor (sem contagem total). "
+                    + "Envie o nextCursor da resposta anterior para obter a próxima página")
+    public ResponseEntity<CursorPage<ArtistResponse>> findAllByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<ArtistResponse> response = artistService.findAllByCursor(cursor, size);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/search")
-    @Operation(summary = "Buscar artistas por nome", description = "Busca artistas pelo nome com ordenação")
+    @Operation(summary = "Buscar artistas por nome",
+            description = "Busca artistas pelo nome com ordenação: asc, desc ou relevance (mais parecidos com o termo primeiro)")
     public ResponseEntity<Page<ArtistResponse>> findByName(
             @RequestParam String name,
             @RequestParam(defaultValue = "asc") String order,
@@ -65,6 +80,17 @@ public class ArtistController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/suggest")
+    @Operation(summary = "Sugerir artistas",
+            description = "Autocompletar: retorna até limit artistas (máx. 50) cujo nome ou alguma palavra do nome começa com q, "
+                    + "servido por um índice em memória")
+    public ResponseEntity<List<ArtistSuggestion>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<ArtistSuggestion> response = artistService.suggest(q, limit);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/type/{type}")
     @Operation(summary = "Buscar artistas por tipo", description = "Busca artistas pelo tipo (SOLO ou BAND)")
     public ResponseEntity<Page<ArtistResponse>> findByType(@PathVariable ArtistType type, Pageable pageable) {
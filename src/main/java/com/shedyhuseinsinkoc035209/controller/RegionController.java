@@ -1,12 +1,23 @@
 package com.shedyhuseinsinkoc035209.controller;
 
 import com.shedyhuseinsinkoc035209.dto.RegionResponse;
-import com.shedyhuseinsinkoc035209.service.RegionService;
+import com.shedyhuseinsinkoc035209.dto.RegionSnapshot;
+import com.shedyhuseinsinkoc035209.service.RegionSnapshotCache;
+import com.shedyhuseinsinkoc035209.service.RegionSyncCoordinator;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -17,33 +28,67 @@ import java.util.List;
 @Tag(name = "Regionais", description = "Endpoints para gerenciamento de regionais")
 public class RegionController {
 
-    private final RegionService regionService;
+    // Clients may keep the list but must revalidate it, which costs a 304 until the next synchronization
+    private static final CacheControl REGIONS_CACHE_CONTROL = CacheControl.noCache();
 
-    public RegionController(RegionService regionService) {
-        this.regionService = regionService;
+    private final RegionSnapshotCache regionSnapshotCache;
+    private final RegionSyncCoordinator regionSyncCoordinator;
+
+    public RegionController(RegionSnapshotCache regionSnapshotCache, RegionSyncCoordinator regionSyncCoordinator) {
+        this.regionSnapshotCache = regionSnapshotCache;
+        this.regionSyncCoordinator = regionSyncCoordinator;
     }
 
     @GetMapping
-    @Operation(summary = "Listar regionais", description = "Lista todas as regionais")
-    public ResponseEntity<List<RegionResponse>> findAll() {
-        List<RegionResponse> regions = regionService.findAll()
-                .stream().map(RegionResponse::fromEntity).toList();
-        return ResponseEntity.ok(regions);
+    @Operation(summary = "Listar regionais",
+            description = "Lista todas as regionais a partir do snapshot em memória, com suporte a ETag/If-None-Match (304)")
+    @ApiResponse(responseCode = "200", description = "Lista de regionais",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = RegionResponse.class))))
+    @ApiResponse(responseCode = "304", description = "Lista inalterada desde o ETag informado em If-None-Match")
+    public ResponseEntity<byte[]> findAll(@RequestHeader HttpHeaders headers) {
+        return snapshotResponse(regionSnapshotCache.all(), headers);
     }
 
     @GetMapping("/active")
-    @Operation(summary = "Listar regionais ativas", description = "Lista todas as regionais ativas")
-    public ResponseEntity<List<RegionResponse>> findAllActive() {
-        List<RegionResponse> regions = regionService.findAllActive()
-                .stream().map(RegionResponse::fromEntity).toList();
-        return ResponseEntity.ok(regions);
+    @Operation(summary = "Listar regionais ativas",
+            description = "Lista as regionais ativas a partir do snapshot em memória, com suporte a ETag/If-None-Match (304)")
+    @ApiResponse(responseCode = "200", description = "Lista de regionais ativas",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = RegionResponse.class))))
+    @ApiResponse(responseCode = "304", description = "Lista inalterada desde o ETag informado em If-None-Match")
+    public ResponseEntity<byte[]> findAllActive(@RequestHeader HttpHeaders headers) {
+        return snapshotResponse(regionSnapshotCache.active(), headers);
     }
 
     @PostMapping("/sync")
-    @Operation(summary = "Sincronizar regionais", description = "Sincroniza regionais com a API externa")
+    @Operation(summary = "Sincronizar regionais", description = "Sincroniza regionais com a API externa. "
+            + "Chamadas simultâneas aguardam a sincronização em andamento e recebem o mesmo resultado")
     public ResponseEntity<List<RegionResponse>> synchronize() {
-        List<RegionResponse> regions = regionService.synchronize()
+        List<RegionResponse> regions = regionSyncCoordinator.synchronize().activeRegions()
                 .stream().map(RegionResponse::fromEntity).toList();
         return ResponseEntity.ok(regions);
     }
+
+    private static ResponseEntity<byte[]> snapshotResponse(RegionSnapshot snapshot, HttpHeaders headers) {
+        if (isNotModified(headers, snapshot)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(snapshot.etag())
+                    .cacheControl(REGIONS_CACHE_CONTROL)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.etag())
+                .cacheControl(REGIONS_CACHE_CONTROL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(snapshot.body().length)
+                .body(snapshot.body());
+    }
+
+    private static boolean isNotModified(HttpHeaders headers, RegionSnapshot snapshot) {
+        String etag = "\"" + snapshot.etag() + "\"";
+        return headers.getIfNoneMatch().stream()
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(etag));
+    }
 }
@@ -0,0 +1,9 @@
+package com.shedyhuseinsinkoc035209.dto;
+
+import java.util.UUID;
+
+public record AlbumArtistName(
+        UUID albumId,
+        String artistName
+) {
+}
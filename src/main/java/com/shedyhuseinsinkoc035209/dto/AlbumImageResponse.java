@@ -3,6 +3,7 @@ package com.shedyhuseinsinkoc035209.dto;
 import com.shedyhuseinsinkoc035209.entity.AlbumImage;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.UUID;
 
 public record AlbumImageResponse(
@@ -11,16 +12,18 @@ public record AlbumImageResponse(
         String fileName,
         String contentType,
         String url,
+        Map<String, String> renditionUrls,
         LocalDateTime createdAt
 ) {
 
-    public static AlbumImageResponse fromEntity(AlbumImage image, UUID albumId, String url) {
+    public static AlbumImageResponse fromEntity(AlbumImage image, UUID albumId, String url, Map<String, String> renditionUrls) {
         return new AlbumImageResponse(
                 image.getId(),
                 albumId,
                 image.getFileName(),
                 image.getContentType(),
                 url,
+                renditionUrls,
                 image.getCreatedAt()
         );
     }
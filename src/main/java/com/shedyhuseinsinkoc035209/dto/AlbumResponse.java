@@ -16,13 +16,28 @@ public record AlbumResponse(
 ) {
 
     public static AlbumResponse fromEntity(Album album) {
+        return fromEntity(album, album.getArtistNames());
+    }
+
+    public static AlbumResponse fromEntity(Album album, List<String> artistNames) {
         return new AlbumResponse(
                 album.getId(),
                 album.getTitle(),
                 album.getReleaseYear(),
-                album.getArtistNames(),
+                artistNames,
                 album.getCreatedAt(),
                 album.getUpdatedAt()
         );
     }
+
+    public static AlbumResponse fromSummary(AlbumSummary summary, List<String> artistNames) {
+        return new AlbumResponse(
+                summary.id(),
+                summary.title(),
+                summary.releaseYear(),
+                artistNames,
+                summary.createdAt(),
+                summary.updatedAt()
+        );
+    }
 }
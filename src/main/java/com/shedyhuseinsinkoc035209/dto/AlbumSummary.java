@@ -0,0 +1,13 @@
+package com.shedyhuseinsinkoc035209.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record AlbumSummary(
+        UUID id,
+        String title,
+        Integer releaseYear,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+}
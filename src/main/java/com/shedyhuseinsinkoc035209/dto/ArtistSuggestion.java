@@ -0,0 +1,12 @@
+package com.shedyhuseinsinkoc035209.dto;
+
+import com.shedyhuseinsinkoc035209.entity.ArtistType;
+
+import java.util.UUID;
+
+public record ArtistSuggestion(
+        UUID id,
+        String name,
+        ArtistType type
+) {
+}
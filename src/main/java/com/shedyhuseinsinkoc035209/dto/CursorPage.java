@@ -0,0 +1,27 @@
+package com.shedyhuseinsinkoc035209.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+public record CursorPage<T>(
+        List<T> content,
+        int size,
+        String nextCursor
+) {
+
+    public static final int MAX_SIZE = 100;
+
+    public static int normalizeSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_SIZE));
+    }
+
+    // rows holds up to size + 1 elements; the extra one only signals that another page exists
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, rows.size(), null);
+        }
+
+        List<T> content = List.copyOf(rows.subList(0, size));
+        return new CursorPage<>(content, size, cursorOf.apply(content.get(size - 1)));
+    }
+}
@@ -0,0 +1,8 @@
+package com.shedyhuseinsinkoc035209.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record ImageUploadCompletion(
+        @NotBlank String objectKey
+) {
+}
@@ -0,0 +1,11 @@
+package com.shedyhuseinsinkoc035209.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+
+public record ImageUploadRequest(
+        @NotBlank String fileName,
+        @NotBlank String contentType,
+        @Positive long size
+) {
+}
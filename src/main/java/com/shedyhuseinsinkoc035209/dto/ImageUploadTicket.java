@@ -0,0 +1,16 @@
+package com.shedyhuseinsinkoc035209.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A presigned POST policy: the client sends a multipart/form-data POST to {@code url} with every {@code formData}
+ * field followed by the {@code file} field, then confirms with the object key.
+ */
+public record ImageUploadTicket(
+        String objectKey,
+        String url,
+        Map<String, String> formData,
+        Instant expiresAt
+) {
+}
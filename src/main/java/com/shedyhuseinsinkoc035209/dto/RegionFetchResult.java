@@ -0,0 +1,27 @@
+package com.shedyhuseinsinkoc035209.dto;
+
+import java.util.List;
+
+/**
+ * One answer of the regions API, with the validators the next request is made conditional on once it is applied.
+ * {@code regions} is null when the list has not changed since the last applied answer.
+ */
+public record RegionFetchResult(
+        List<RegionExternalDto> regions,
+        String etag,
+        String lastModified,
+        String contentHash
+) {
+
+    public static RegionFetchResult changed(List<RegionExternalDto> regions) {
+        return new RegionFetchResult(regions, null, null, null);
+    }
+
+    public static RegionFetchResult unchanged() {
+        return new RegionFetchResult(null, null, null, null);
+    }
+
+    public boolean isUnchanged() {
+        return regions == null;
+    }
+}
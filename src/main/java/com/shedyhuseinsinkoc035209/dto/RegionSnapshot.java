@@ -0,0 +1,10 @@
+package com.shedyhuseinsinkoc035209.dto;
+
+/**
+ * A region list already serialized to JSON, with the ETag of those exact bytes.
+ */
+public record RegionSnapshot(
+        byte[] body,
+        String etag
+) {
+}
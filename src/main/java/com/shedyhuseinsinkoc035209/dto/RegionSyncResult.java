@@ -0,0 +1,12 @@
+package com.shedyhuseinsinkoc035209.dto;
+
+import com.shedyhuseinsinkoc035209.entity.Region;
+
+import java.util.List;
+
+public record RegionSyncResult(
+        List<Region> activeRegions,
+        int deactivated,
+        int inserted
+) {
+}
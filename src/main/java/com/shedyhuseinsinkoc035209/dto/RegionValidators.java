@@ -0,0 +1,16 @@
+package com.shedyhuseinsinkoc035209.dto;
+
+/**
+ * What identifies the last applied answer of the regions API: its ETag and Last-Modified for a conditional request,
+ * and the SHA-256 of its body for servers that send neither.
+ */
+public record RegionValidators(
+        String etag,
+        String lastModified,
+        String contentHash
+) {
+
+    public static RegionValidators none() {
+        return new RegionValidators(null, null, null);
+    }
+}
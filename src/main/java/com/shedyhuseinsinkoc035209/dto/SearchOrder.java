@@ -0,0 +1,20 @@
+package com.shedyhuseinsinkoc035209.dto;
+
+/**
+ * The {@code order} accepted by the name searches: alphabetical either way, or by similarity to the searched name.
+ */
+public enum SearchOrder {
+    ASC,
+    DESC,
+    RELEVANCE;
+
+    // Anything unrecognized sorts ascending, as the searches always did
+    public static SearchOrder from(String order) {
+        for (SearchOrder value : values()) {
+            if (value.name().equalsIgnoreCase(order)) {
+                return value;
+            }
+        }
+        return ASC;
+    }
+}
@@ -0,0 +1,12 @@
+package com.shedyhuseinsinkoc035209.dto;
+
+import java.time.Instant;
+
+public record StoredObject(
+        String objectKey,
+        String contentType,
+        long size,
+        String etag,
+        Instant lastModified
+) {
+}
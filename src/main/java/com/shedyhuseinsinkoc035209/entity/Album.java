@@ -14,6 +14,7 @@ import jakarta.persistence.Table;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -82,6 +83,15 @@ public class Album {
         this.artists.clear();
     }
 
+    /**
+     * Replaces the artists seen from this side only. Artist owns artist_album, so the rows are written by the
+     * repository; this keeps the loaded album in line with them without initializing each artist's albums.
+     */
+    public void replaceArtists(Collection<Artist> artists) {
+        this.artists.clear();
+        this.artists.addAll(artists);
+    }
+
     public List<String> getArtistNames() {
         return this.artists.stream()
                 .map(Artist::getName)
@@ -34,6 +34,12 @@ public class AlbumImage {
     @Column(name = "content_type")
     private String contentType;
 
+    @Column(name = "thumbnail_object_key")
+    private String thumbnailObjectKey;
+
+    @Column(name = "medium_object_key")
+    private String mediumObjectKey;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -82,6 +88,13 @@ public class AlbumImage {
         return contentType;
     }
 
+    public String getRenditionObjectKey(ImageRendition rendition) {
+        return switch (rendition) {
+            case THUMBNAIL -> thumbnailObjectKey;
+            case MEDIUM -> mediumObjectKey;
+        };
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
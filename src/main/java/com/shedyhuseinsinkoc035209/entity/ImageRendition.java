@@ -0,0 +1,29 @@
+package com.shedyhuseinsinkoc035209.entity;
+
+import java.util.Locale;
+
+public enum ImageRendition {
+    THUMBNAIL(256),
+    MEDIUM(1024);
+
+    private final int maxDimension;
+
+    ImageRendition(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Renditions live next to the original: {@code <original key>.<label>.jpg}.
+     */
+    public String objectKeyFor(String originalObjectKey) {
+        return originalObjectKey + "." + label() + ".jpg";
+    }
+}
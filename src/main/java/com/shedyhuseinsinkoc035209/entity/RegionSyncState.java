@@ -0,0 +1,63 @@
+package com.shedyhuseinsinkoc035209.entity;
+
+import com.shedyhuseinsinkoc035209.dto.RegionValidators;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "region_sync_state")
+public class RegionSyncState {
+
+    public static final short ID = 1;
+
+    @Id
+    private Short id;
+
+    private String etag;
+
+    @Column(name = "last_modified")
+    private String lastModified;
+
+    @Column(name = "content_hash")
+    private String contentHash;
+
+    @Column(nullable = false)
+    private Long version;
+
+    public RegionSyncState() {
+    }
+
+    public RegionSyncState(String etag, String lastModified, String contentHash, Long version) {
+        this.id = ID;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.contentHash = contentHash;
+        this.version = version;
+    }
+
+    public RegionValidators validators() {
+        return new RegionValidators(etag, lastModified, contentHash);
+    }
+
+    public Short getId() {
+        return id;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
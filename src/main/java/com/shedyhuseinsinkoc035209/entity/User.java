@@ -1,21 +1,26 @@
 package com.shedyhuseinsinkoc035209.entity;
 
+import com.shedyhuseinsinkoc035209.event.UserEntityListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserEntityListener.class)
 public class User {
 
     @Id
@@ -38,6 +43,10 @@ public class User {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // The username as read from the database, so a rename can still reach caches keyed by the old one
+    @Transient
+    private String loadedUsername;
+
     public User() {
     }
 
@@ -59,6 +68,11 @@ public class User {
         this.updatedAt = LocalDateTime.now();
     }
 
+    @PostLoad
+    protected void onLoad() {
+        this.loadedUsername = this.username;
+    }
+
     public UUID getId() {
         return id;
     }
@@ -67,6 +81,10 @@ public class User {
         return username;
     }
 
+    public String getLoadedUsername() {
+        return loadedUsername;
+    }
+
     public String getPassword() {
         return password;
     }
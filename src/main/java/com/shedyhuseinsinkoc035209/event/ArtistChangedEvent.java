@@ -0,0 +1,20 @@
+package com.shedyhuseinsinkoc035209.event;
+
+import com.shedyhuseinsinkoc035209.dto.ArtistSuggestion;
+
+import java.util.UUID;
+
+public record ArtistChangedEvent(UUID artistId, ArtistSuggestion current) {
+
+    public static ArtistChangedEvent saved(ArtistSuggestion artist) {
+        return new ArtistChangedEvent(artist.id(), artist);
+    }
+
+    public static ArtistChangedEvent deleted(UUID artistId) {
+        return new ArtistChangedEvent(artistId, null);
+    }
+
+    public boolean isDeleted() {
+        return current == null;
+    }
+}
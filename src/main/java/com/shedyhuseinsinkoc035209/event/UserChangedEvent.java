@@ -0,0 +1,19 @@
+package com.shedyhuseinsinkoc035209.event;
+
+import java.util.Set;
+
+/**
+ * A user was updated or removed. {@code previousUsername} is the name it was loaded with, which differs from
+ * {@code username} after a rename; anything keyed by username has to drop both.
+ */
+public record UserChangedEvent(
+        String previousUsername,
+        String username
+) {
+
+    public Set<String> usernames() {
+        return previousUsername == null || previousUsername.equals(username)
+                ? Set.of(username)
+                : Set.of(previousUsername, username);
+    }
+}
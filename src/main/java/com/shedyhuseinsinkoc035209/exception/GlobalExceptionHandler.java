@@ -39,6 +39,11 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.NOT_FOUND, "Not Found", ex.getMessage());
     }
 
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public ResponseEntity<Map<String, Object>> handlePayloadTooLarge(PayloadTooLargeException ex) {
+        return buildResponse(HttpStatus.CONTENT_TOO_LARGE, "Content Too Large", ex.getMessage());
+    }
+
     @ExceptionHandler(InfrastructureException.class)
     public ResponseEntity<Map<String, Object>> handleInfrastructure(InfrastructureException ex) {
         return buildResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error", ex.getMessage());
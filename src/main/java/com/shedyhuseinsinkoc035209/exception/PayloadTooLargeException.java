@@ -0,0 +1,8 @@
+package com.shedyhuseinsinkoc035209.exception;
+
+public class PayloadTooLargeException extends RuntimeException {
+
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -1,33 +1,76 @@
 package com.shedyhuseinsinkoc035209.filter;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shedyhuseinsinkoc035209.event.UserChangedEvent;
 import com.shedyhuseinsinkoc035209.service.CustomUserDetailsService;
-import com.shedyhuseinsinkoc035209.util.JwtUtil;
+import com.shedyhuseinsinkoc035209.util.VerifiedToken;
+import com.shedyhuseinsinkoc035209.util.VerifiedTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private static final Logger LOG = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
-    private final JwtUtil jwtUtil;
+    private static final String STATELESS_MODE = "stateless";
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    static final String CACHE_NAME = "security.revalidated-users";
+
+    private final VerifiedTokenCache verifiedTokenCache;
     private final CustomUserDetailsService userDetailsService;
+    private final boolean stateless;
+    // Username -> authority last confirmed against the user record; an entry older than the interval is gone
+    private final Cache<String, String> revalidatedUsers;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, CustomUserDetailsService userDetailsService) {
-        this.jwtUtil = jwtUtil;
+    public JwtAuthenticationFilter(VerifiedTokenCache verifiedTokenCache, CustomUserDetailsService userDetailsService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${security.authentication.mode:database}") String authenticationMode,
+                                   @Value("${security.authentication.revalidation-interval:5m}") Duration revalidationInterval,
+                                   @Value("${security.authentication.revalidation-cache.maximum-size:10000}") long maximumSize) {
+        this.verifiedTokenCache = verifiedTokenCache;
         this.userDetailsService = userDetailsService;
+        this.stateless = STATELESS_MODE.equalsIgnoreCase(authenticationMode);
+        this.revalidatedUsers = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(revalidationInterval)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, revalidatedUsers, CACHE_NAME);
+    }
+
+    /**
+     * A changed or removed user is checked against the database again on its next request instead of keeping its
+     * claims accepted until the revalidation interval runs out.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        revalidatedUsers.invalidateAll(event.usernames());
     }
 
     @Override
@@ -49,16 +92,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
 
-            if (jwtUtil.validateToken(token)) {
-                String username = jwtUtil.extractUsername(token);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            Optional<UsernamePasswordAuthenticationToken> authentication = verifiedTokenCache.verify(token)
+                    .flatMap(this::authenticate);
 
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            if (authentication.isPresent()) {
+                authentication.get().setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                LOG.debug("JWT authentication successful for user '{}'", username);
+                SecurityContextHolder.getContext().setAuthentication(authentication.get());
+                LOG.debug("JWT authentication successful for user '{}'", authentication.get().getName());
             } else {
                 LOG.debug("No valid JWT token found in request");
             }
@@ -68,4 +109,44 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private Optional<UsernamePasswordAuthenticationToken> authenticate(VerifiedToken token) {
+        if (stateless && token.role() != null) {
+            return authenticateFromClaims(token);
+        }
+
+        UserDetails userDetails = userDetailsService.loadUserByUsername(token.subject());
+        return Optional.of(new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+
+    // The principal is a UserDetails in both modes, so @AuthenticationPrincipal consumers do not depend on the mode
+    private Optional<UsernamePasswordAuthenticationToken> authenticateFromClaims(VerifiedToken token) {
+        String username = token.subject();
+        String authority = ROLE_PREFIX + token.role();
+
+        if (!authority.equals(revalidatedUsers.getIfPresent(username)) && !revalidate(username, authority)) {
+            LOG.warn("JWT for user '{}' rejected: role claim no longer matches the user record", username);
+            return Optional.empty();
+        }
+
+        UserDetails principal = new User(username, "", List.of(new SimpleGrantedAuthority(authority)));
+        return Optional.of(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private boolean revalidate(String username, String authority) {
+        try {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            boolean matches = userDetails.getAuthorities().stream()
+                    .anyMatch(granted -> authority.equals(granted.getAuthority()));
+            if (matches) {
+                revalidatedUsers.put(username, authority);
+            } else {
+                revalidatedUsers.invalidate(username);
+            }
+            return matches;
+        } catch (UsernameNotFoundException e) {
+            revalidatedUsers.invalidate(username);
+            return false;
+        }
+    }
 }
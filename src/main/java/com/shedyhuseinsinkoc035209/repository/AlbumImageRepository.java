@@ -2,13 +2,39 @@ package com.shedyhuseinsinkoc035209.repository;
 
 import com.shedyhuseinsinkoc035209.entity.AlbumImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface AlbumImageRepository extends JpaRepository<AlbumImage, UUID> {
 
     List<AlbumImage> findByAlbumId(UUID albumId);
+
+    Optional<AlbumImage> findByObjectKey(String objectKey);
+
+    long countByObjectKey(String objectKey);
+
+    /**
+     * Serializes the images sharing an object until the current transaction ends, so the last reference cannot be
+     * deleted while a new one is being saved.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext(:objectKey))", nativeQuery = true)
+    int lockObjectKey(@Param("objectKey") String objectKey);
+
+    /**
+     * Returns 0 when the image was deleted while its renditions were being generated.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE AlbumImage i SET i.thumbnailObjectKey = :thumbnailObjectKey, i.mediumObjectKey = :mediumObjectKey "
+            + "WHERE i.id = :id")
+    int updateRenditionObjectKeys(@Param("id") UUID id, @Param("thumbnailObjectKey") String thumbnailObjectKey,
+                                  @Param("mediumObjectKey") String mediumObjectKey);
 }
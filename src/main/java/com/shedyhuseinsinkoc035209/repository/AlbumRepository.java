@@ -1,22 +1,84 @@
 package com.shedyhuseinsinkoc035209.repository;
 
+import com.shedyhuseinsinkoc035209.dto.AlbumArtistName;
+import com.shedyhuseinsinkoc035209.dto.AlbumSummary;
 import com.shedyhuseinsinkoc035209.entity.Album;
 import com.shedyhuseinsinkoc035209.entity.ArtistType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface AlbumRepository extends JpaRepository<Album, UUID> {
 
-    @Query("SELECT DISTINCT a FROM Album a JOIN a.artists ar WHERE ar.type = :type")
-    Page<Album> findByArtistType(@Param("type") ArtistType type, Pageable pageable);
+    @Query("SELECT a FROM Album a LEFT JOIN FETCH a.artists WHERE a.id = :id")
+    Optional<Album> findByIdWithArtists(@Param("id") UUID id);
 
-    @Query("SELECT DISTINCT a FROM Album a JOIN a.artists ar WHERE LOWER(ar.name) LIKE LOWER(CONCAT('%', :name, '%'))")
-    Page<Album> findByArtistNameContaining(@Param("name") String name, Pageable pageable);
+    /**
+     * Artist owns artist_album, so linking through the entities would load every album of every credited artist.
+     * This and {@link #linkArtists} write one album's rows directly instead.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM artist_album WHERE album_id = :albumId", nativeQuery = true)
+    int unlinkArtists(@Param("albumId") UUID albumId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO artist_album (artist_id, album_id) SELECT ar.id, :albumId FROM artists ar "
+            + "WHERE ar.id IN (:artistIds)",
+            nativeQuery = true)
+    int linkArtists(@Param("albumId") UUID albumId, @Param("artistIds") Collection<UUID> artistIds);
+
+    @Query("SELECT new com.shedyhuseinsinkoc035209.dto.AlbumSummary(a.id, a.title, a.releaseYear, a.createdAt, a.updatedAt) "
+            + "FROM Album a WHERE a.id = :id")
+    Optional<AlbumSummary> findSummaryById(@Param("id") UUID id);
+
+    @Query(value = "SELECT new com.shedyhuseinsinkoc035209.dto.AlbumSummary(a.id, a.title, a.releaseYear, a.createdAt, a.updatedAt) "
+            + "FROM Album a",
+            countQuery = "SELECT COUNT(a) FROM Album a")
+    Page<AlbumSummary> findAllSummaries(Pageable pageable);
+
+    @Query(value = "SELECT new com.shedyhuseinsinkoc035209.dto.AlbumSummary(a.id, a.title, a.releaseYear, a.createdAt, a.updatedAt) "
+            + "FROM Album a WHERE EXISTS (SELECT 1 FROM Artist ar JOIN ar.albums al WHERE al.id = a.id AND ar.type = :type)",
+            countQuery = "SELECT COUNT(a) FROM Album a "
+                    + "WHERE EXISTS (SELECT 1 FROM Artist ar JOIN ar.albums al WHERE al.id = a.id AND ar.type = :type)")
+    Page<AlbumSummary> findSummariesByArtistType(@Param("type") ArtistType type, Pageable pageable);
+
+    @Query(value = "SELECT new com.shedyhuseinsinkoc035209.dto.AlbumSummary(a.id, a.title, a.releaseYear, a.createdAt, a.updatedAt) "
+            + "FROM Album a WHERE EXISTS (SELECT 1 FROM Artist ar JOIN ar.albums al "
+            + "WHERE al.id = a.id AND LOWER(ar.name) LIKE LOWER(CONCAT('%', :pattern, '%')) ESCAPE '\\')",
+            countQuery = "SELECT COUNT(a) FROM Album a WHERE EXISTS (SELECT 1 FROM Artist ar JOIN ar.albums al "
+                    + "WHERE al.id = a.id AND LOWER(ar.name) LIKE LOWER(CONCAT('%', :pattern, '%')) ESCAPE '\\')")
+    Page<AlbumSummary> findSummariesByArtistNameContaining(@Param("pattern") String pattern, Pageable pageable);
+
+    @Query(value = "SELECT new com.shedyhuseinsinkoc035209.dto.AlbumSummary(a.id, a.title, a.releaseYear, a.createdAt, a.updatedAt) "
+            + "FROM Album a JOIN a.artists ar WHERE LOWER(ar.name) LIKE LOWER(CONCAT('%', :pattern, '%')) ESCAPE '\\' "
+            + "GROUP BY a.id, a.title, a.releaseYear, a.createdAt, a.updatedAt "
+            + "ORDER BY MAX(FUNCTION('similarity', LOWER(ar.name), LOWER(:name))) DESC, a.title, a.id",
+            countQuery = "SELECT COUNT(a) FROM Album a WHERE EXISTS (SELECT 1 FROM Artist ar JOIN ar.albums al "
+                    + "WHERE al.id = a.id AND LOWER(ar.name) LIKE LOWER(CONCAT('%', :pattern, '%')) ESCAPE '\\')")
+    Page<AlbumSummary> findSummariesByArtistNameContainingOrderByRelevance(@Param("pattern") String pattern,
+                                                                           @Param("name") String name,
+                                                                           Pageable pageable);
+
+    @Query("SELECT new com.shedyhuseinsinkoc035209.dto.AlbumSummary(a.id, a.title, a.releaseYear, a.createdAt, a.updatedAt) "
+            + "FROM Album a ORDER BY a.title, a.id")
+    List<AlbumSummary> findFirstSummariesByTitleKeyset(Limit limit);
+
+    @Query("SELECT new com.shedyhuseinsinkoc035209.dto.AlbumSummary(a.id, a.title, a.releaseYear, a.createdAt, a.updatedAt) "
+            + "FROM Album a WHERE (a.title, a.id) > (:title, :id) ORDER BY a.title, a.id")
+    List<AlbumSummary> findSummariesByTitleKeysetAfter(@Param("title") String title, @Param("id") UUID id, Limit limit);
+
+    @Query("SELECT new com.shedyhuseinsinkoc035209.dto.AlbumArtistName(al.id, ar.name) FROM Artist ar JOIN ar.albums al "
+            + "WHERE al.id IN :albumIds")
+    List<AlbumArtistName> findArtistNamesByAlbumIds(@Param("albumIds") Collection<UUID> albumIds);
 }
@@ -1,20 +1,61 @@
 package com.shedyhuseinsinkoc035209.repository;
 
+import com.shedyhuseinsinkoc035209.dto.ArtistResponse;
+import com.shedyhuseinsinkoc035209.dto.ArtistSuggestion;
 import com.shedyhuseinsinkoc035209.entity.Artist;
 import com.shedyhuseinsinkoc035209.entity.ArtistType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface ArtistRepository extends JpaRepository<Artist, UUID> {
 
-    Page<Artist> findByNameContainingIgnoreCase(String name, Pageable pageable);
+    @Query("SELECT new com.shedyhuseinsinkoc035209.dto.ArtistResponse(ar.id, ar.name, ar.type, ar.createdAt, ar.updatedAt) "
+            + "FROM Artist ar WHERE ar.id = :id")
+    Optional<ArtistResponse> findResponseById(@Param("id") UUID id);
 
-    Page<Artist> findByType(ArtistType type, Pageable pageable);
+    @Query(value = "SELECT new com.shedyhuseinsinkoc035209.dto.ArtistResponse(ar.id, ar.name, ar.type, ar.createdAt, ar.updatedAt) "
+            + "FROM Artist ar",
+            countQuery = "SELECT COUNT(ar) FROM Artist ar")
+    Page<ArtistResponse> findAllResponses(Pageable pageable);
+
+    @Query(value = "SELECT new com.shedyhuseinsinkoc035209.dto.ArtistResponse(ar.id, ar.name, ar.type, ar.createdAt, ar.updatedAt) "
+            + "FROM Artist ar WHERE LOWER(ar.name) LIKE LOWER(CONCAT('%', :pattern, '%')) ESCAPE '\\'",
+            countQuery = "SELECT COUNT(ar) FROM Artist ar WHERE LOWER(ar.name) LIKE LOWER(CONCAT('%', :pattern, '%')) ESCAPE '\\'")
+    Page<ArtistResponse> findResponsesByNameContaining(@Param("pattern") String pattern, Pageable pageable);
+
+    @Query(value = "SELECT new com.shedyhuseinsinkoc035209.dto.ArtistResponse(ar.id, ar.name, ar.type, ar.createdAt, ar.updatedAt) "
+            + "FROM Artist ar WHERE LOWER(ar.name) LIKE LOWER(CONCAT('%', :pattern, '%')) ESCAPE '\\' "
+            + "ORDER BY FUNCTION('similarity', LOWER(ar.name), LOWER(:name)) DESC, ar.name, ar.id",
+            countQuery = "SELECT COUNT(ar) FROM Artist ar WHERE LOWER(ar.name) LIKE LOWER(CONCAT('%', :pattern, '%')) ESCAPE '\\'")
+    Page<ArtistResponse> findResponsesByNameContainingOrderByRelevance(@Param("pattern") String pattern,
+                                                                     @Param("name") String name,
+                                                                     Pageable pageable);
+
+    @Query(value = "SELECT new com.shedyhuseinsinkoc035209.dto.ArtistResponse(ar.id, ar.name, ar.type, ar.createdAt, ar.updatedAt) "
+            + "FROM Artist ar WHERE ar.type = :type",
+            countQuery = "SELECT COUNT(ar) FROM Artist ar WHERE ar.type = :type")
+    Page<ArtistResponse> findResponsesByType(@Param("type") ArtistType type, Pageable pageable);
+
+    @Query("SELECT new com.shedyhuseinsinkoc035209.dto.ArtistResponse(ar.id, ar.name, ar.type, ar.createdAt, ar.updatedAt) "
+            + "FROM Artist ar ORDER BY ar.name, ar.id")
+    List<ArtistResponse> findFirstResponsesByNameKeyset(Limit limit);
+
+    @Query("SELECT new com.shedyhuseinsinkoc035209.dto.ArtistResponse(ar.id, ar.name, ar.type, ar.createdAt, ar.updatedAt) "
+            + "FROM Artist ar WHERE (ar.name, ar.id) > (:name, :id) ORDER BY ar.name, ar.id")
+    List<ArtistResponse> findResponsesByNameKeysetAfter(@Param("name") String name, @Param("id") UUID id, Limit limit);
 
     Page<Artist> findByNameContainingIgnoreCaseAndType(String name, ArtistType type, Pageable pageable);
+
+    @Query("SELECT new com.shedyhuseinsinkoc035209.dto.ArtistSuggestion(ar.id, ar.name, ar.type) FROM Artist ar")
+    List<ArtistSuggestion> findAllSuggestions();
 }
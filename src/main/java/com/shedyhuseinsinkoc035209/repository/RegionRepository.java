@@ -2,6 +2,9 @@ package com.shedyhuseinsinkoc035209.repository;
 
 import com.shedyhuseinsinkoc035209.entity.Region;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,4 +13,33 @@ import java.util.List;
 public interface RegionRepository extends JpaRepository<Region, Long> {
 
     List<Region> findByActiveTrue();
+
+    /**
+     * Serializes synchronizations across instances until the current transaction ends, so two of them cannot both
+     * insert an active row for the same external id.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('regions.synchronization'))", nativeQuery = true)
+    int lockSynchronization();
+
+    /**
+     * Deactivates every active region whose (external id, name) pair is not in the given list: removed regions and
+     * the old row of renamed ones. The two arrays are read in parallel, one region per index.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE regions r SET active = FALSE WHERE r.active AND NOT EXISTS ("
+            + "SELECT 1 FROM unnest(CAST(:externalIds AS integer[]), CAST(:names AS varchar[])) AS e(external_id, name) "
+            + "WHERE e.external_id = r.external_id AND e.name = r.name)",
+            nativeQuery = true)
+    int deactivateAllNotIn(@Param("externalIds") Integer[] externalIds, @Param("names") String[] names);
+
+    /**
+     * Inserts an active row for every listed region without one, which after {@link #deactivateAllNotIn} covers both
+     * new and renamed regions.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO regions (external_id, name, active) SELECT e.external_id, e.name, TRUE "
+            + "FROM unnest(CAST(:externalIds AS integer[]), CAST(:names AS varchar[])) AS e(external_id, name) "
+            + "WHERE NOT EXISTS (SELECT 1 FROM regions r WHERE r.active AND r.external_id = e.external_id)",
+            nativeQuery = true)
+    int insertActiveMissing(@Param("externalIds") Integer[] externalIds, @Param("names") String[] names);
 }
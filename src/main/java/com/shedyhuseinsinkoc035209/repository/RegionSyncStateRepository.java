@@ -0,0 +1,30 @@
+package com.shedyhuseinsinkoc035209.repository;
+
+import com.shedyhuseinsinkoc035209.entity.RegionSyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RegionSyncStateRepository extends JpaRepository<RegionSyncState, Short> {
+
+    default RegionSyncState findState() {
+        return findById(RegionSyncState.ID)
+                .orElseThrow(() -> new IllegalStateException("Region sync state row is missing"));
+    }
+
+    @Query("SELECT s.version FROM RegionSyncState s WHERE s.id = " + RegionSyncState.ID)
+    long findVersion();
+
+    /**
+     * Records the list just applied and bumps the version. Meant to run in the transaction that applied it, so the
+     * state never describes a list whose changes were rolled back.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RegionSyncState s SET s.etag = :etag, s.lastModified = :lastModified, s.contentHash = :contentHash, "
+            + "s.version = s.version + 1 WHERE s.id = " + RegionSyncState.ID)
+    int markApplied(@Param("etag") String etag, @Param("lastModified") String lastModified,
+                    @Param("contentHash") String contentHash);
+}
@@ -1,54 +1,216 @@
 package com.shedyhuseinsinkoc035209.service;
 
 import com.shedyhuseinsinkoc035209.dto.AlbumImageResponse;
+import com.shedyhuseinsinkoc035209.dto.ImageUploadCompletion;
+import com.shedyhuseinsinkoc035209.dto.ImageUploadRequest;
+import com.shedyhuseinsinkoc035209.dto.ImageUploadTicket;
+import com.shedyhuseinsinkoc035209.dto.StoredObject;
 import com.shedyhuseinsinkoc035209.entity.Album;
 import com.shedyhuseinsinkoc035209.entity.AlbumImage;
+import com.shedyhuseinsinkoc035209.entity.ImageRendition;
+import com.shedyhuseinsinkoc035209.exception.InfrastructureException;
+import com.shedyhuseinsinkoc035209.exception.PayloadTooLargeException;
 import com.shedyhuseinsinkoc035209.exception.ResourceNotFoundException;
 import com.shedyhuseinsinkoc035209.repository.AlbumImageRepository;
 import com.shedyhuseinsinkoc035209.repository.AlbumRepository;
+import com.shedyhuseinsinkoc035209.util.SizeLimitedInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class AlbumImageService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(AlbumImageService.class);
+
+    static final Set<String> UPLOAD_CONTENT_TYPES = Set.of("image/jpeg", "image/png", "image/gif", "image/webp");
+    static final String STAGING_KEY_PREFIX = "staging/";
+
     private final AlbumImageRepository albumImageRepository;
     private final AlbumRepository albumRepository;
     private final MinioService minioService;
+    private final ImageRenditionService imageRenditionService;
+    private final ImageReferenceService imageReferenceService;
+    private final Executor uploadExecutor;
+    private final Duration uploadTimeout;
+    private final DataSize directUploadMaxSize;
+    private final Duration directUploadExpiry;
+    private final DataSize streamUploadMaxSize;
 
     public AlbumImageService(AlbumImageRepository albumImageRepository, AlbumRepository albumRepository,
-                             MinioService minioService) {
+                             MinioService minioService, ImageRenditionService imageRenditionService,
+                             ImageReferenceService imageReferenceService,
+                             @Qualifier("minioUploadExecutor") Executor uploadExecutor,
+                             @Value("${minio.upload.timeout:60s}") Duration uploadTimeout,
+                             @Value("${album-images.direct-upload.max-size:10MB}") DataSize directUploadMaxSize,
+                             @Value("${album-images.direct-upload.expiry:15m}") Duration directUploadExpiry,
+                             @Value("${album-images.stream-upload.max-size:100MB}") DataSize streamUploadMaxSize) {
         this.albumImageRepository = albumImageRepository;
         this.albumRepository = albumRepository;
         this.minioService = minioService;
+        this.imageRenditionService = imageRenditionService;
+        this.imageReferenceService = imageReferenceService;
+        this.uploadExecutor = uploadExecutor;
+        this.uploadTimeout = uploadTimeout;
+        this.directUploadMaxSize = directUploadMaxSize;
+        this.directUploadExpiry = directUploadExpiry;
+        this.streamUploadMaxSize = streamUploadMaxSize;
     }
 
-    @Transactional
     public List<AlbumImageResponse> uploadImages(UUID albumId, MultipartFile[] files) {
         Album album = albumRepository.findById(albumId)
                 .orElseThrow(() -> new ResourceNotFoundException("Album not found with id: " + albumId));
 
-        List<AlbumImageResponse> responses = new ArrayList<>();
+        List<String> objectKeys = uploadAll(files);
 
-        for (MultipartFile file : files) {
-            String objectKey = minioService.uploadFile(file);
-
-            AlbumImage image = AlbumImage.create(album, file.getOriginalFilename(), objectKey, file.getContentType());
+        List<AlbumImage> images = new ArrayList<>(files.length);
+        Map<String, MultipartFile> filesByObjectKey = new HashMap<>();
+        for (int i = 0; i < files.length; i++) {
+            MultipartFile file = files[i];
+            images.add(AlbumImage.create(album, file.getOriginalFilename(), objectKeys.get(i), file.getContentType()));
+            filesByObjectKey.putIfAbsent(objectKeys.get(i), file);
+        }
 
-            AlbumImage saved = albumImageRepository.save(image);
-            String presignedUrl = minioService.getPresignedUrl(objectKey);
+        // saveAll runs in its own transaction, so the database is only held for the batched insert
+        List<AlbumImage> saved;
+        try {
+            saved = imageReferenceService.saveAll(images, objectKey -> minioService.uploadFile(filesByObjectKey.get(objectKey)));
+        } catch (RuntimeException e) {
+            removeUploadedObjects(objectKeys);
+            throw e;
+        }
 
-            responses.add(AlbumImageResponse.fromEntity(saved, albumId, presignedUrl));
+        List<AlbumImageResponse> responses = new ArrayList<>(saved.size());
+        for (AlbumImage image : saved) {
+            imageRenditionService.generateAsync(image);
+            responses.add(toResponse(image, albumId));
         }
 
         return responses;
     }
 
+    /**
+     * Pipes a raw request body into MinIO without a multipart resolver spooling it first. The declared length is
+     * checked up front, and the stream itself is capped so a missing or lying Content-Length cannot bypass the limit.
+     */
+    public AlbumImageResponse uploadImageStream(UUID albumId, String fileName, String contentType, long contentLength,
+                                                InputStream body) {
+        Album album = albumRepository.findById(albumId)
+                .orElseThrow(() -> new ResourceNotFoundException("Album not found with id: " + albumId));
+        if (contentType == null || !UPLOAD_CONTENT_TYPES.contains(contentType)) {
+            throw new IllegalArgumentException("Unsupported image content type: " + contentType);
+        }
+        if (contentLength > streamUploadMaxSize.toBytes()) {
+            throw new PayloadTooLargeException(tooLargeMessage(streamUploadMaxSize));
+        }
+
+        // Hashing happens while streaming, so the bytes land under a staging key until their content key is known
+        String stagingKey = STAGING_KEY_PREFIX + UUID.randomUUID();
+        SizeLimitedInputStream limited = new SizeLimitedInputStream(body, streamUploadMaxSize.toBytes());
+        String objectKey;
+        try {
+            objectKey = minioService.uploadStream(stagingKey, limited, contentType);
+        } catch (InfrastructureException e) {
+            if (limited.isLimitExceeded()) {
+                throw new PayloadTooLargeException(tooLargeMessage(streamUploadMaxSize));
+            }
+            throw e;
+        }
+
+        AlbumImage saved;
+        try {
+            minioService.copyIfAbsent(stagingKey, objectKey);
+            saved = imageReferenceService.saveAll(List.of(AlbumImage.create(album, fileName, objectKey, contentType)),
+                    missingKey -> minioService.copyIfAbsent(stagingKey, missingKey)).get(0);
+        } catch (RuntimeException e) {
+            removeUploadedObjects(List.of(objectKey));
+            throw e;
+        } finally {
+            removeStagingObject(stagingKey);
+        }
+        imageRenditionService.generateAsync(saved);
+        return toResponse(saved, albumId);
+    }
+
+    public ImageUploadTicket createUploadTicket(UUID albumId, ImageUploadRequest request) {
+        if (!albumRepository.existsById(albumId)) {
+            throw new ResourceNotFoundException("Album not found with id: " + albumId);
+        }
+        validateUpload(request.contentType(), request.size());
+
+        // The album prefix ties the key to this album, so completion cannot claim objects uploaded for another one
+        String objectKey = albumId + "/" + UUID.randomUUID() + "_" + sanitizeFileName(request.fileName());
+        Instant expiresAt = Instant.now().plus(directUploadExpiry);
+        Map<String, String> formData = minioService.getPresignedPostFormData(objectKey, request.contentType(),
+                directUploadMaxSize.toBytes(), expiresAt.atZone(ZoneOffset.UTC));
+
+        return new ImageUploadTicket(objectKey, minioService.getBucketUrl(), formData, expiresAt);
+    }
+
+    public AlbumImageResponse completeUpload(UUID albumId, ImageUploadCompletion completion) {
+        Album album = albumRepository.findById(albumId)
+                .orElseThrow(() -> new ResourceNotFoundException("Album not found with id: " + albumId));
+
+        String objectKey = completion.objectKey();
+        String albumPrefix = albumId + "/";
+        if (!objectKey.startsWith(albumPrefix) || objectKey.indexOf('_', albumPrefix.length()) < 0) {
+            throw new IllegalArgumentException("Object key was not issued for album " + albumId);
+        }
+
+        // Completing twice (a client retry) returns the image created the first time
+        Optional<AlbumImage> existing = albumImageRepository.findByObjectKey(objectKey);
+        if (existing.isPresent()) {
+            return toResponse(existing.get(), albumId);
+        }
+
+        StoredObject object = minioService.statFile(objectKey);
+        try {
+            validateUpload(object.contentType(), object.size());
+        } catch (IllegalArgumentException e) {
+            minioService.deleteFile(objectKey);
+            throw e;
+        }
+
+        String fileName = objectKey.substring(objectKey.indexOf('_', albumPrefix.length()) + 1);
+        AlbumImage saved;
+        try {
+            saved = albumImageRepository.save(AlbumImage.create(album, fileName, objectKey, object.contentType()));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent completion of the same key won the unique index; answer like a retry would
+            return albumImageRepository.findByObjectKey(objectKey)
+                    .map(image -> toResponse(image, albumId))
+                    .orElseThrow(() -> e);
+        }
+        imageRenditionService.generateAsync(saved);
+        return toResponse(saved, albumId);
+    }
+
     public List<AlbumImageResponse> getImagesByAlbumId(UUID albumId) {
         if (!albumRepository.existsById(albumId)) {
             throw new ResourceNotFoundException("Album not found with id: " + albumId);
@@ -58,19 +220,114 @@ public class AlbumImageService {
         List<AlbumImageResponse> responses = new ArrayList<>();
 
         for (AlbumImage image : images) {
-            String presignedUrl = minioService.getPresignedUrl(image.getObjectKey());
-            responses.add(AlbumImageResponse.fromEntity(image, albumId, presignedUrl));
+            responses.add(toResponse(image, albumId));
         }
 
         return responses;
     }
 
-    @Transactional
+    public StoredObject getImageContent(UUID imageId) {
+        AlbumImage image = albumImageRepository.findById(imageId)
+                .orElseThrow(() -> new ResourceNotFoundException("Image not found with id: " + imageId));
+
+        return minioService.statFile(image.getObjectKey());
+    }
+
+    public InputStream openImageContent(StoredObject object, long offset, long length) {
+        return minioService.openFile(object.objectKey(), offset, length);
+    }
+
     public void deleteImage(UUID imageId) {
         AlbumImage image = albumImageRepository.findById(imageId)
                 .orElseThrow(() -> new ResourceNotFoundException("Image not found with id: " + imageId));
 
-        minioService.deleteFile(image.getObjectKey());
-        albumImageRepository.delete(image);
+        imageReferenceService.delete(image);
+    }
+
+    private void validateUpload(String contentType, long size) {
+        if (contentType == null || !UPLOAD_CONTENT_TYPES.contains(contentType)) {
+            throw new IllegalArgumentException("Unsupported image content type: " + contentType);
+        }
+        if (size > directUploadMaxSize.toBytes()) {
+            throw new IllegalArgumentException(tooLargeMessage(directUploadMaxSize));
+        }
+    }
+
+    private static String tooLargeMessage(DataSize maxSize) {
+        return "Image exceeds the maximum size of " + maxSize.toMegabytes() + "MB";
+    }
+
+    private static String sanitizeFileName(String fileName) {
+        String sanitized = fileName.replaceAll("[^A-Za-z0-9._-]", "_");
+        return sanitized.length() > 200 ? sanitized.substring(sanitized.length() - 200) : sanitized;
+    }
+
+    private AlbumImageResponse toResponse(AlbumImage image, UUID albumId) {
+        Map<String, String> renditionUrls = new LinkedHashMap<>();
+        for (ImageRendition rendition : ImageRendition.values()) {
+            String renditionKey = image.getRenditionObjectKey(rendition);
+            if (renditionKey != null) {
+                renditionUrls.put(rendition.label(), minioService.getPresignedUrl(renditionKey));
+            }
+        }
+        return AlbumImageResponse.fromEntity(image, albumId, minioService.getPresignedUrl(image.getObjectKey()), renditionUrls);
+    }
+
+    private List<String> uploadAll(MultipartFile[] files) {
+        List<CompletableFuture<String>> uploads = new ArrayList<>(files.length);
+        try {
+            for (MultipartFile file : files) {
+                uploads.add(CompletableFuture.supplyAsync(() -> minioService.uploadFile(file), uploadExecutor));
+            }
+            // allOf only completes after every upload has settled, so all successful keys are known on failure
+            CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new))
+                    .orTimeout(uploadTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                    .join();
+        } catch (RejectedExecutionException e) {
+            discardUploads(uploads);
+            throw new InfrastructureException("Too many uploads in progress, try again later", e);
+        } catch (CompletionException e) {
+            discardUploads(uploads);
+            if (e.getCause() instanceof TimeoutException timeout) {
+                throw new InfrastructureException("Timed out uploading files to MinIO after " + uploadTimeout.toMillis() + "ms", timeout);
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new InfrastructureException("Failed to upload files to MinIO: " + e.getMessage(), e);
+        }
+
+        return uploads.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Removes the objects of finished uploads now, and of the ones still running once they finish, since an upload
+     * that timed out cannot be called back from MinIO.
+     */
+    private void discardUploads(List<CompletableFuture<String>> uploads) {
+        for (CompletableFuture<String> upload : uploads) {
+            upload.thenAccept(objectKey -> removeUploadedObjects(List.of(objectKey)));
+        }
+    }
+
+    /**
+     * Content keys may already be used by other images, so only objects left without references are removed.
+     */
+    private void removeUploadedObjects(List<String> objectKeys) {
+        for (String objectKey : new LinkedHashSet<>(objectKeys)) {
+            try {
+                imageReferenceService.deleteIfUnreferenced(objectKey);
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to remove orphan object '{}' after a failed upload: {}", objectKey, e.getMessage());
+            }
+        }
+    }
+
+    private void removeStagingObject(String stagingKey) {
+        try {
+            minioService.deleteFile(stagingKey);
+        } catch (InfrastructureException e) {
+            LOG.warn("Failed to remove staging object '{}': {}", stagingKey, e.getMessage());
+        }
     }
 }
@@ -1,15 +1,22 @@
 package com.shedyhuseinsinkoc035209.service;
 
+import com.shedyhuseinsinkoc035209.dto.AlbumArtistName;
 import com.shedyhuseinsinkoc035209.dto.AlbumRequest;
 import com.shedyhuseinsinkoc035209.dto.AlbumResponse;
+import com.shedyhuseinsinkoc035209.dto.AlbumSummary;
+import com.shedyhuseinsinkoc035209.dto.CursorPage;
+import com.shedyhuseinsinkoc035209.dto.SearchOrder;
 import com.shedyhuseinsinkoc035209.entity.Album;
 import com.shedyhuseinsinkoc035209.entity.Artist;
 import com.shedyhuseinsinkoc035209.entity.ArtistType;
 import com.shedyhuseinsinkoc035209.exception.ResourceNotFoundException;
 import com.shedyhuseinsinkoc035209.repository.AlbumRepository;
 import com.shedyhuseinsinkoc035209.repository.ArtistRepository;
+import com.shedyhuseinsinkoc035209.util.CursorCodec;
+import com.shedyhuseinsinkoc035209.util.LikePattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -18,7 +25,13 @@ import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
 
 @Service
@@ -39,11 +52,9 @@ public class AlbumService {
 
     @Transactional
     public AlbumResponse create(AlbumRequest request) {
-        Album album = new Album(request.title(), request.releaseYear());
-
-        addArtistsToAlbum(album, request.artistIds());
-
-        Album saved = albumRepository.save(album);
+        List<Artist> artists = findArtists(request.artistIds());
+        Album saved = albumRepository.save(new Album(request.title(), request.releaseYear()));
+        linkArtists(saved, artists);
 
         AlbumResponse response = AlbumResponse.fromEntity(saved);
         messagingTemplate.convertAndSend("/topic/albums", response);
@@ -51,41 +62,77 @@ public class AlbumService {
         return response;
     }
 
+    @Transactional(readOnly = true)
     public AlbumResponse findById(UUID id) {
-        Album album = albumRepository.findById(id)
+        AlbumSummary album = albumRepository.findSummaryById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Album not found with id: " + id));
-        return AlbumResponse.fromEntity(album);
+        return AlbumResponse.fromSummary(album, findArtistNames(List.of(id)).getOrDefault(id, List.of()));
     }
 
+    @Transactional(readOnly = true)
     public Page<AlbumResponse> findAll(Pageable pageable) {
-        return albumRepository.findAll(pageable).map(AlbumResponse::fromEntity);
+        return toResponses(albumRepository.findAllSummaries(pageable));
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<AlbumResponse> findAllByCursor(String cursor, int size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<AlbumSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = albumRepository.findFirstSummariesByTitleKeyset(limit);
+        } else {
+            CursorCodec.Cursor after = CursorCodec.decode(cursor);
+            rows = albumRepository.findSummariesByTitleKeysetAfter(after.sortKey(), after.id(), limit);
+        }
+
+        CursorPage<AlbumSummary> page = CursorPage.of(rows, pageSize, album -> CursorCodec.encode(album.title(), album.id()));
+        if (page.content().isEmpty()) {
+            return new CursorPage<>(List.of(), 0, null);
+        }
+
+        Map<UUID, List<String>> artistNames = findArtistNames(page.content().stream().map(AlbumSummary::id).toList());
+        List<AlbumResponse> content = page.content().stream()
+                .map(album -> AlbumResponse.fromSummary(album, artistNames.getOrDefault(album.id(), List.of())))
+                .toList();
+        return new CursorPage<>(content, page.size(), page.nextCursor());
+    }
+
+    @Transactional(readOnly = true)
     public Page<AlbumResponse> findByArtistType(ArtistType type, Pageable pageable) {
-        return albumRepository.findByArtistType(type, pageable).map(AlbumResponse::fromEntity);
+        return toResponses(albumRepository.findSummariesByArtistType(type, pageable));
     }
 
+    @Transactional(readOnly = true)
     public Page<AlbumResponse> findByArtistName(String name, String order, Pageable pageable) {
-        Sort.Direction direction = "desc".equalsIgnoreCase(order) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        SearchOrder searchOrder = SearchOrder.from(order);
+        if (searchOrder == SearchOrder.RELEVANCE) {
+            Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+            return toResponses(albumRepository.findSummariesByArtistNameContainingOrderByRelevance(
+                    LikePattern.escape(name), name, unsorted));
+        }
+
+        Sort.Direction direction = searchOrder == SearchOrder.DESC ? Sort.Direction.DESC : Sort.Direction.ASC;
         Pageable sorted = PageRequest.of(
                 pageable.getPageNumber(),
                 pageable.getPageSize(),
-                Sort.by(direction, "title")
+                Sort.by(direction, "title").and(Sort.by("id"))
         );
-        return albumRepository.findByArtistNameContaining(name, sorted).map(AlbumResponse::fromEntity);
+        return toResponses(albumRepository.findSummariesByArtistNameContaining(LikePattern.escape(name), sorted));
     }
 
     @Transactional
     public AlbumResponse update(UUID id, AlbumRequest request) {
-        Album album = albumRepository.findById(id)
+        Album album = albumRepository.findByIdWithArtists(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Album not found with id: " + id));
 
         album.update(request.title(), request.releaseYear());
-        album.clearArtists();
-
-        addArtistsToAlbum(album, request.artistIds());
+        List<Artist> artists = findArtists(request.artistIds());
 
         Album updated = albumRepository.save(album);
+        albumRepository.unlinkArtists(id);
+        linkArtists(updated, artists);
         LOG.info("Album '{}' updated", id);
         return AlbumResponse.fromEntity(updated);
     }
@@ -95,16 +142,50 @@ public class AlbumService {
         Album album = albumRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Album not found with id: " + id));
 
-        album.clearArtists();
+        // artist_album rows go with the album through ON DELETE CASCADE
         albumRepository.delete(album);
         LOG.info("Album '{}' deleted", id);
     }
 
-    private void addArtistsToAlbum(Album album, Set<UUID> artistIds) {
-        for (UUID artistId : artistIds) {
-            Artist artist = artistRepository.findById(artistId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Artist not found with id: " + artistId));
-            album.addArtist(artist);
+    private List<Artist> findArtists(Set<UUID> artistIds) {
+        if (artistIds.isEmpty()) {
+            return List.of();
+        }
+
+        // Only the artists themselves: their album collections are never touched, so they are never loaded
+        List<Artist> artists = artistRepository.findAllById(artistIds);
+
+        if (artists.size() != artistIds.size()) {
+            Set<UUID> missing = new TreeSet<>(artistIds);
+            artists.forEach(artist -> missing.remove(artist.getId()));
+            throw new ResourceNotFoundException("Artist not found with ids: " + missing);
+        }
+        return artists;
+    }
+
+    private void linkArtists(Album album, List<Artist> artists) {
+        if (!artists.isEmpty()) {
+            albumRepository.linkArtists(album.getId(), artists.stream().map(Artist::getId).toList());
+        }
+        album.replaceArtists(artists);
+    }
+
+    // Artist names for the whole page come from one query instead of initializing each album's artists
+    private Page<AlbumResponse> toResponses(Page<AlbumSummary> albums) {
+        if (albums.isEmpty()) {
+            return albums.map(album -> AlbumResponse.fromSummary(album, List.of()));
+        }
+
+        Map<UUID, List<String>> artistNames = findArtistNames(albums.map(AlbumSummary::id).getContent());
+        return albums.map(album -> AlbumResponse.fromSummary(album, artistNames.getOrDefault(album.id(), List.of())));
+    }
+
+    private Map<UUID, List<String>> findArtistNames(List<UUID> albumIds) {
+        Map<UUID, List<String>> artistNames = new HashMap<>();
+        for (AlbumArtistName row : albumRepository.findArtistNamesByAlbumIds(albumIds)) {
+            artistNames.computeIfAbsent(row.albumId(), id -> new ArrayList<>()).add(row.artistName());
         }
+        artistNames.values().forEach(Collections::sort);
+        return artistNames;
     }
 }
@@ -2,10 +2,18 @@ package com.shedyhuseinsinkoc035209.service;
 
 import com.shedyhuseinsinkoc035209.dto.ArtistRequest;
 import com.shedyhuseinsinkoc035209.dto.ArtistResponse;
+import com.shedyhuseinsinkoc035209.dto.ArtistSuggestion;
+import com.shedyhuseinsinkoc035209.dto.CursorPage;
+import com.shedyhuseinsinkoc035209.dto.SearchOrder;
 import com.shedyhuseinsinkoc035209.entity.Artist;
 import com.shedyhuseinsinkoc035209.entity.ArtistType;
+import com.shedyhuseinsinkoc035209.event.ArtistChangedEvent;
 import com.shedyhuseinsinkoc035209.exception.ResourceNotFoundException;
 import com.shedyhuseinsinkoc035209.repository.ArtistRepository;
+import com.shedyhuseinsinkoc035209.util.CursorCodec;
+import com.shedyhuseinsinkoc035209.util.LikePattern;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -13,51 +21,85 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.UUID;
 
 @Service
 public class ArtistService {
 
+    static final int MAX_SUGGESTIONS = 50;
+
     private final ArtistRepository artistRepository;
+    private final ArtistSuggestionIndex suggestionIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ArtistService(ArtistRepository artistRepository) {
+    public ArtistService(ArtistRepository artistRepository, ArtistSuggestionIndex suggestionIndex,
+                         ApplicationEventPublisher eventPublisher) {
         this.artistRepository = artistRepository;
+        this.suggestionIndex = suggestionIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
     public ArtistResponse create(ArtistRequest request) {
         Artist artist = new Artist(request.name(), request.type());
         Artist saved = artistRepository.save(artist);
+        eventPublisher.publishEvent(ArtistChangedEvent.saved(toSuggestion(saved)));
         return ArtistResponse.fromEntity(saved);
     }
 
+    @Transactional(readOnly = true)
     public ArtistResponse findById(UUID id) {
-        Artist artist = artistRepository.findById(id)
+        return artistRepository.findResponseById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Artist not found with id: " + id));
-        return ArtistResponse.fromEntity(artist);
     }
 
+    @Transactional(readOnly = true)
     public Page<ArtistResponse> findAll(Pageable pageable) {
         Pageable sorted = PageRequest.of(
                 pageable.getPageNumber(),
                 pageable.getPageSize(),
                 Sort.by(Sort.Direction.ASC, "name")
         );
-        return artistRepository.findAll(sorted).map(ArtistResponse::fromEntity);
+        return artistRepository.findAllResponses(sorted);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<ArtistResponse> findAllByCursor(String cursor, int size) {
+        int pageSize = CursorPage.normalizeSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<ArtistResponse> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = artistRepository.findFirstResponsesByNameKeyset(limit);
+        } else {
+            CursorCodec.Cursor after = CursorCodec.decode(cursor);
+            rows = artistRepository.findResponsesByNameKeysetAfter(after.sortKey(), after.id(), limit);
+        }
+
+        return CursorPage.of(rows, pageSize, artist -> CursorCodec.encode(artist.name(), artist.id()));
     }
 
+    @Transactional(readOnly = true)
     public Page<ArtistResponse> findByName(String name, String order, Pageable pageable) {
-        Sort.Direction direction = "desc".equalsIgnoreCase(order) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        SearchOrder searchOrder = SearchOrder.from(order);
+        if (searchOrder == SearchOrder.RELEVANCE) {
+            Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+            return artistRepository.findResponsesByNameContainingOrderByRelevance(LikePattern.escape(name), name, unsorted);
+        }
+
+        Sort.Direction direction = searchOrder == SearchOrder.DESC ? Sort.Direction.DESC : Sort.Direction.ASC;
         Pageable sorted = PageRequest.of(
                 pageable.getPageNumber(),
                 pageable.getPageSize(),
-                Sort.by(direction, "name")
+                Sort.by(direction, "name").and(Sort.by("id"))
         );
-        return artistRepository.findByNameContainingIgnoreCase(name, sorted).map(ArtistResponse::fromEntity);
+        return artistRepository.findResponsesByNameContaining(LikePattern.escape(name), sorted);
     }
 
+    @Transactional(readOnly = true)
     public Page<ArtistResponse> findByType(ArtistType type, Pageable pageable) {
-        return artistRepository.findByType(type, pageable).map(ArtistResponse::fromEntity);
+        return artistRepository.findResponsesByType(type, pageable);
     }
 
     @Transactional
@@ -66,6 +108,7 @@ public class ArtistService {
                 .orElseThrow(() -> new ResourceNotFoundException("Artist not found with id: " + id));
         artist.update(request.name(), request.type());
         Artist updated = artistRepository.save(artist);
+        eventPublisher.publishEvent(ArtistChangedEvent.saved(toSuggestion(updated)));
         return ArtistResponse.fromEntity(updated);
     }
 
@@ -75,5 +118,14 @@ public class ArtistService {
             throw new ResourceNotFoundException("Artist not found with id: " + id);
         }
         artistRepository.deleteById(id);
+        eventPublisher.publishEvent(ArtistChangedEvent.deleted(id));
+    }
+
+    public List<ArtistSuggestion> suggest(String query, int limit) {
+        return suggestionIndex.suggest(query, Math.min(limit, MAX_SUGGESTIONS));
+    }
+
+    private static ArtistSuggestion toSuggestion(Artist artist) {
+        return new ArtistSuggestion(artist.getId(), artist.getName(), artist.getType());
     }
 }
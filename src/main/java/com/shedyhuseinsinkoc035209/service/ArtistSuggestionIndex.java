@@ -0,0 +1,160 @@
+package com.shedyhuseinsinkoc035209.service;
+
+import com.shedyhuseinsinkoc035209.dto.ArtistSuggestion;
+import com.shedyhuseinsinkoc035209.event.ArtistChangedEvent;
+import com.shedyhuseinsinkoc035209.repository.ArtistRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+@Component
+public class ArtistSuggestionIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ArtistSuggestionIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    // Rough per-entry footprint of a skip-list node plus its key String header; key characters are added on top
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final ArtistRepository artistRepository;
+
+    // Both maps are keyed by "<normalized text>\0<artist id>", so a prefix lookup is a sorted range scan
+    private final ConcurrentSkipListMap<String, ArtistSuggestion> byName = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, ArtistSuggestion> byWord = new ConcurrentSkipListMap<>();
+    private final Map<UUID, ArtistSuggestion> artists = new ConcurrentHashMap<>();
+    private final AtomicLong estimatedBytes = new AtomicLong();
+
+    public ArtistSuggestionIndex(ArtistRepository artistRepository, MeterRegistry meterRegistry) {
+        this.artistRepository = artistRepository;
+
+        Gauge.builder("artists.suggestion.index.entries", this, index -> index.byName.size() + index.byWord.size())
+                .description("Keys held by the artist typeahead index")
+                .register(meterRegistry);
+        Gauge.builder("artists.suggestion.index.memory", estimatedBytes, AtomicLong::get)
+                .description("Estimated heap used by the artist typeahead index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        byName.clear();
+        byWord.clear();
+        artists.clear();
+        estimatedBytes.set(0);
+
+        List<ArtistSuggestion> all = artistRepository.findAllSuggestions();
+        all.forEach(this::add);
+        LOG.info("Artist suggestion index built with {} artists", all.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onArtistChanged(ArtistChangedEvent event) {
+        ArtistSuggestion previous = artists.get(event.artistId());
+        if (previous != null) {
+            remove(previous);
+        }
+        if (!event.isDeleted()) {
+            add(event.current());
+        }
+    }
+
+    public List<ArtistSuggestion> suggest(String query, int limit) {
+        String prefix = normalize(query).trim();
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // Names starting with the query rank ahead of names where only a later word does
+        Map<UUID, ArtistSuggestion> found = new LinkedHashMap<>();
+        collect(byName, prefix, limit, found);
+        collect(byWord, prefix, limit, found);
+        return new ArrayList<>(found.values());
+    }
+
+    public int size() {
+        return artists.size();
+    }
+
+    private static void collect(NavigableMap<String, ArtistSuggestion> index, String prefix, int limit,
+                                Map<UUID, ArtistSuggestion> found) {
+        for (ArtistSuggestion artist : index.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (found.size() >= limit) {
+                return;
+            }
+            found.putIfAbsent(artist.id(), artist);
+        }
+    }
+
+    private void add(ArtistSuggestion artist) {
+        artists.put(artist.id(), artist);
+        String name = normalize(artist.name());
+        put(byName, key(name, artist), artist);
+        for (String word : words(name)) {
+            put(byWord, key(word, artist), artist);
+        }
+    }
+
+    private void remove(ArtistSuggestion artist) {
+        artists.remove(artist.id());
+        String name = normalize(artist.name());
+        delete(byName, key(name, artist));
+        for (String word : words(name)) {
+            delete(byWord, key(word, artist));
+        }
+    }
+
+    private void put(Map<String, ArtistSuggestion> index, String key, ArtistSuggestion artist) {
+        if (index.put(key, artist) == null) {
+            estimatedBytes.addAndGet(ENTRY_OVERHEAD_BYTES + key.length());
+        }
+    }
+
+    private void delete(Map<String, ArtistSuggestion> index, String key) {
+        if (index.remove(key) != null) {
+            estimatedBytes.addAndGet(-(ENTRY_OVERHEAD_BYTES + key.length()));
+        }
+    }
+
+    // Only words after the first are indexed here; the first word is already covered by the full-name key
+    private static List<String> words(String normalizedName) {
+        String[] parts = WORD_SEPARATOR.split(normalizedName);
+        List<String> words = new ArrayList<>(parts.length);
+        for (int i = 1; i < parts.length; i++) {
+            if (!parts[i].isEmpty()) {
+                words.add(parts[i]);
+            }
+        }
+        return words;
+    }
+
+    private static String key(String text, ArtistSuggestion artist) {
+        return text + KEY_SEPARATOR + artist.id();
+    }
+
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -4,24 +4,34 @@ import com.shedyhuseinsinkoc035209.dto.LoginRequest;
 import com.shedyhuseinsinkoc035209.dto.LoginResponse;
 import com.shedyhuseinsinkoc035209.dto.RefreshRequest;
 import com.shedyhuseinsinkoc035209.util.JwtUtil;
+import com.shedyhuseinsinkoc035209.util.VerifiedToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+
 @Service
 public class AuthService {
 
     private static final Logger LOG = LoggerFactory.getLogger(AuthService.class);
 
+    private static final String ROLE_PREFIX = "ROLE_";
+
     private final AuthenticationManager authenticationManager;
+    private final CustomUserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
 
-    public AuthService(AuthenticationManager authenticationManager, JwtUtil jwtUtil) {
+    public AuthService(AuthenticationManager authenticationManager, CustomUserDetailsService userDetailsService,
+                       JwtUtil jwtUtil) {
         this.authenticationManager = authenticationManager;
+        this.userDetailsService = userDetailsService;
         this.jwtUtil = jwtUtil;
     }
 
@@ -31,7 +41,7 @@ public class AuthService {
         );
 
         String username = authentication.getName();
-        String accessToken = jwtUtil.generateToken(username);
+        String accessToken = jwtUtil.generateToken(username, resolveRole(authentication.getAuthorities()));
         String refreshToken = jwtUtil.generateRefreshToken(username);
 
         LOG.info("User '{}' logged in successfully", username);
@@ -41,20 +51,31 @@ public class AuthService {
     public LoginResponse refresh(RefreshRequest request) {
         String refreshToken = request.refreshToken();
 
-        if (!jwtUtil.validateToken(refreshToken)) {
+        VerifiedToken verified = jwtUtil.verify(refreshToken).orElseThrow(() -> {
             LOG.warn("Invalid refresh token attempt");
-            throw new BadCredentialsException("Invalid refresh token");
-        }
+            return new BadCredentialsException("Invalid refresh token");
+        });
 
-        if (!jwtUtil.isRefreshToken(refreshToken)) {
+        if (!verified.isRefreshToken()) {
             LOG.warn("Invalid refresh token attempt");
             throw new BadCredentialsException("Token is not a refresh token");
         }
 
-        String username = jwtUtil.extractUsername(refreshToken);
-        String newAccessToken = jwtUtil.generateToken(username);
+        // The role claim of the new access token always comes from the current user row
+        String username = verified.subject();
+        UserDetails user = userDetailsService.loadUserByUsername(username);
+        String newAccessToken = jwtUtil.generateToken(username, resolveRole(user.getAuthorities()));
 
         LOG.info("Token refreshed for user '{}'", username);
         return new LoginResponse(newAccessToken, refreshToken, jwtUtil.getExpiration(), "Bearer");
     }
+
+    private static String resolveRole(Collection<? extends GrantedAuthority> authorities) {
+        return authorities.stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(authority -> authority.startsWith(ROLE_PREFIX))
+                .map(authority -> authority.substring(ROLE_PREFIX.length()))
+                .findFirst()
+                .orElse(null);
+    }
 }
@@ -1,33 +1,91 @@
 package com.shedyhuseinsinkoc035209.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.shedyhuseinsinkoc035209.entity.User;
+import com.shedyhuseinsinkoc035209.event.UserChangedEvent;
 import com.shedyhuseinsinkoc035209.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(CustomUserDetailsService.class);
+
+    static final String CACHE_NAME = "security.user-details";
+
     private final UserRepository userRepository;
+    private final Cache<String, CachedUser> cache;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, MeterRegistry meterRegistry,
+                                    @Value("${security.user-details-cache.ttl:5m}") Duration ttl,
+                                    @Value("${security.user-details-cache.maximum-size:1000}") long maximumSize) {
         this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        CachedUser cached = cache.get(username, this::loadFromDatabase);
+
+        // A fresh UserDetails per call: the authentication manager erases credentials on the instance it receives
+        return new org.springframework.security.core.userdetails.User(
+                cached.username(),
+                cached.password(),
+                cached.authorities()
+        );
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+        LOG.debug("User details cache entry evicted for user '{}'", username);
+    }
+
+    /**
+     * Evicts only once the change is committed: evicting earlier would let a concurrent login cache the old row again,
+     * and a rolled back change needs no eviction at all. Runs before the JWT filter drops its revalidations, so the
+     * revalidation that follows already reads the new row.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        event.usernames().forEach(this::evict);
+    }
+
+    private CachedUser loadFromDatabase(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
-        return new org.springframework.security.core.userdetails.User(
+        return new CachedUser(
                 user.getUsername(),
                 user.getPassword(),
                 Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
         );
     }
+
+    private record CachedUser(String username, String password, List<GrantedAuthority> authorities) {
+    }
 }
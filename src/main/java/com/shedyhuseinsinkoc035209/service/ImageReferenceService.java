@@ -0,0 +1,117 @@
+package com.shedyhuseinsinkoc035209.service;
+
+import com.shedyhuseinsinkoc035209.entity.AlbumImage;
+import com.shedyhuseinsinkoc035209.entity.ImageRendition;
+import com.shedyhuseinsinkoc035209.repository.AlbumImageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Reference counting for stored objects. Identical uploads share one content-addressed object, so the image rows
+ * pointing at a key are its references and the bytes are only removed with the last one.
+ */
+@Service
+public class ImageReferenceService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImageReferenceService.class);
+
+    private final AlbumImageRepository albumImageRepository;
+    private final MinioService minioService;
+    private final TransactionTemplate removalTransaction;
+
+    public ImageReferenceService(AlbumImageRepository albumImageRepository, MinioService minioService,
+                                 PlatformTransactionManager transactionManager) {
+        this.albumImageRepository = albumImageRepository;
+        this.minioService = minioService;
+        this.removalTransaction = new TransactionTemplate(transactionManager);
+        this.removalTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Saves images whose objects were stored beforehand. Under the key lock an object can only be missing if the last
+     * image using it was deleted since the upload, and then {@code restoreObject} has to store it again.
+     */
+    @Transactional
+    public List<AlbumImage> saveAll(List<AlbumImage> images, Consumer<String> restoreObject) {
+        // Sorted so two batches sharing keys always lock them in the same order
+        TreeSet<String> objectKeys = new TreeSet<>();
+        images.forEach(image -> objectKeys.add(image.getObjectKey()));
+        for (String objectKey : objectKeys) {
+            albumImageRepository.lockObjectKey(objectKey);
+            if (!minioService.exists(objectKey)) {
+                LOG.info("Object '{}' was removed after being uploaded, storing it again", objectKey);
+                restoreObject.accept(objectKey);
+            }
+        }
+        return albumImageRepository.saveAll(images);
+    }
+
+    @Transactional
+    public void delete(AlbumImage image) {
+        String objectKey = image.getObjectKey();
+        albumImageRepository.lockObjectKey(objectKey);
+        albumImageRepository.delete(image);
+        albumImageRepository.flush();
+        removeIfUnreferenced(objectKey);
+    }
+
+    /**
+     * Removes an object left without images, e.g. after a failed save or when an image was deleted while its
+     * renditions were being generated.
+     */
+    @Transactional
+    public void deleteIfUnreferenced(String objectKey) {
+        albumImageRepository.lockObjectKey(objectKey);
+        removeIfUnreferenced(objectKey);
+    }
+
+    /**
+     * The bytes are only removed once the transaction that dropped the last reference has committed, so a rollback
+     * never leaves a row pointing at a deleted object.
+     */
+    private void removeIfUnreferenced(String objectKey) {
+        if (albumImageRepository.countByObjectKey(objectKey) > 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            removeIfStillUnreferenced(objectKey);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                removeIfStillUnreferenced(objectKey);
+            }
+        });
+    }
+
+    // Counted again under the key lock, as an upload may have reused the key between the commit and this removal
+    private void removeIfStillUnreferenced(String objectKey) {
+        try {
+            removalTransaction.executeWithoutResult(status -> {
+                albumImageRepository.lockObjectKey(objectKey);
+                if (albumImageRepository.countByObjectKey(objectKey) > 0) {
+                    return;
+                }
+                minioService.deleteFile(objectKey);
+                // Removing a rendition that was never generated is a no-op in MinIO
+                for (ImageRendition rendition : ImageRendition.values()) {
+                    minioService.deleteFile(rendition.objectKeyFor(objectKey));
+                }
+            });
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to remove unreferenced object '{}': {}", objectKey, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.shedyhuseinsinkoc035209.service;
+
+import com.shedyhuseinsinkoc035209.entity.AlbumImage;
+import com.shedyhuseinsinkoc035209.entity.ImageRendition;
+import com.shedyhuseinsinkoc035209.exception.InfrastructureException;
+import com.shedyhuseinsinkoc035209.repository.AlbumImageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Generates downscaled renditions of uploaded images in the background. They are encoded as JPEG rather than WebP or
+ * AVIF because the JDK's ImageIO ships no encoder for either, and adding a native codec was not worth it for
+ * thumbnails; the size reduction comes from the downscaling and the quality setting.
+ */
+@Service
+public class ImageRenditionService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImageRenditionService.class);
+
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final AlbumImageRepository albumImageRepository;
+    private final MinioService minioService;
+    private final ImageReferenceService imageReferenceService;
+    private final Executor renditionExecutor;
+
+    public ImageRenditionService(AlbumImageRepository albumImageRepository, MinioService minioService,
+                                 ImageReferenceService imageReferenceService,
+                                 @Qualifier("imageRenditionExecutor") Executor renditionExecutor) {
+        this.albumImageRepository = albumImageRepository;
+        this.minioService = minioService;
+        this.imageReferenceService = imageReferenceService;
+        this.renditionExecutor = renditionExecutor;
+    }
+
+    /**
+     * Queues rendition generation for a stored image. Until it completes (or if it is rejected) the listing simply
+     * exposes no rendition URLs and clients fall back to the original.
+     */
+    public void generateAsync(AlbumImage image) {
+        UUID imageId = image.getId();
+        String objectKey = image.getObjectKey();
+        try {
+            renditionExecutor.execute(() -> generate(imageId, objectKey));
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Rendition queue is full, image {} will be served without renditions", imageId);
+        }
+    }
+
+    void generate(UUID imageId, String objectKey) {
+        if (objectKey.startsWith(MinioService.CONTENT_KEY_PREFIX) && renditionsExist(objectKey)) {
+            // Same content as an image rendered before: its renditions are shared just like the original
+            recordRenditionKeys(imageId, objectKey, ImageRendition.THUMBNAIL.objectKeyFor(objectKey),
+                    ImageRendition.MEDIUM.objectKeyFor(objectKey));
+            return;
+        }
+
+        BufferedImage original;
+        try (InputStream inputStream = minioService.downloadFile(objectKey)) {
+            original = decode(inputStream);
+        } catch (IOException | InfrastructureException e) {
+            LOG.warn("Failed to read image {} for renditions: {}", imageId, e.getMessage());
+            return;
+        }
+        if (original == null) {
+            LOG.info("No decoder for image {}, skipping renditions", imageId);
+            return;
+        }
+
+        Map<ImageRendition, String> stored = new EnumMap<>(ImageRendition.class);
+        try {
+            for (ImageRendition rendition : ImageRendition.values()) {
+                String renditionKey = rendition.objectKeyFor(objectKey);
+                minioService.uploadBytes(renditionKey, render(original, rendition.getMaxDimension()), MediaType.IMAGE_JPEG_VALUE);
+                stored.put(rendition, renditionKey);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to generate renditions for image {}: {}", imageId, e.getMessage());
+            // Shared renditions may be in use by another image; they are removed with their original instead
+            if (!objectKey.startsWith(MinioService.CONTENT_KEY_PREFIX)) {
+                removeObjects(stored);
+            }
+            return;
+        }
+
+        recordRenditionKeys(imageId, objectKey, stored.get(ImageRendition.THUMBNAIL), stored.get(ImageRendition.MEDIUM));
+    }
+
+    private void recordRenditionKeys(UUID imageId, String objectKey, String thumbnailKey, String mediumKey) {
+        int updated = albumImageRepository.updateRenditionObjectKeys(imageId, thumbnailKey, mediumKey);
+        if (updated == 0) {
+            LOG.debug("Image {} was deleted while rendering, removing its renditions if unused", imageId);
+            try {
+                imageReferenceService.deleteIfUnreferenced(objectKey);
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to remove orphan renditions of image {}: {}", imageId, e.getMessage());
+            }
+        }
+    }
+
+    private boolean renditionsExist(String objectKey) {
+        try {
+            for (ImageRendition rendition : ImageRendition.values()) {
+                if (!minioService.exists(rendition.objectKeyFor(objectKey))) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InfrastructureException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Scales the image to fit a square of {@code maxDimension} pixels, never upscaling, and encodes it as JPEG.
+     */
+    static byte[] render(BufferedImage original, int maxDimension) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(original.getWidth(), original.getHeight()));
+        int width = Math.max(1, (int) Math.round(original.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(original.getHeight() * scale));
+
+        // Halving in steps keeps bilinear filtering from skipping source pixels on large reductions
+        BufferedImage current = original;
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = resize(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return encodeJpeg(resize(current, width, height));
+    }
+
+    /**
+     * Decodes with source subsampling when the image is far larger than the biggest rendition, so a huge upload
+     * does not have to be held in memory at full resolution.
+     */
+    private static BufferedImage decode(InputStream inputStream) throws IOException {
+        try (ImageInputStream imageInput = ImageIO.createImageInputStream(inputStream)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int largestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, largestSide / (ImageRendition.MEDIUM.getMaxDimension() * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG has no alpha channel: flatten transparent PNGs onto white instead of black
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(outputStream)) {
+            writer.setOutput(imageOutput);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException e) {
+            throw new InfrastructureException("Failed to encode rendition: " + e.getMessage(), e);
+        } finally {
+            writer.dispose();
+        }
+        return outputStream.toByteArray();
+    }
+
+    private void removeObjects(Map<ImageRendition, String> stored) {
+        for (String objectKey : stored.values()) {
+            try {
+                minioService.deleteFile(objectKey);
+            } catch (InfrastructureException e) {
+                LOG.warn("Failed to remove orphan rendition '{}': {}", objectKey, e.getMessage());
+            }
+        }
+    }
+}
@@ -1,32 +1,98 @@
 package com.shedyhuseinsinkoc035209.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shedyhuseinsinkoc035209.dto.StoredObject;
 import com.shedyhuseinsinkoc035209.exception.InfrastructureException;
+import com.shedyhuseinsinkoc035209.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import io.minio.BucketExistsArgs;
+import io.minio.CopyObjectArgs;
+import io.minio.CopySource;
+import io.minio.GetObjectArgs;
 import io.minio.GetPresignedObjectUrlArgs;
 import io.minio.MakeBucketArgs;
 import io.minio.MinioClient;
+import io.minio.PostPolicy;
 import io.minio.PutObjectArgs;
 import io.minio.RemoveObjectArgs;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
 import io.minio.http.Method;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.util.UUID;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.HexFormat;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 @Service
 public class MinioService {
 
+    static final String PRESIGNED_URL_CACHE_NAME = "minio.presigned-urls";
+    static final String OBJECT_METADATA_CACHE_NAME = "minio.object-metadata";
+    static final String DEDUPLICATED_UPLOADS_METRIC = "minio.uploads.deduplicated";
+
+    public static final String CONTENT_KEY_PREFIX = "sha256/";
+
     private final MinioClient minioClient;
+    private final Duration presignedUrlExpiry;
+    private final Cache<String, String> presignedUrls;
+    private final Cache<String, StoredObject> objectMetadata;
+    private final Counter deduplicatedUploads;
+
+    @Value("${minio.endpoint}")
+    private String endpoint;
 
     @Value("${minio.bucket}")
     private String bucket;
 
-    public MinioService(MinioClient minioClient) {
+    @Value("${minio.upload.part-size:8MB}")
+    private DataSize uploadPartSize;
+
+    public MinioService(MinioClient minioClient, MeterRegistry meterRegistry,
+                        @Value("${minio.presigned-url.expiry:30m}") Duration presignedUrlExpiry,
+                        @Value("${minio.presigned-url.cache.ttl:15m}") Duration cacheTtl,
+                        @Value("${minio.presigned-url.cache.maximum-size:10000}") long cacheMaximumSize,
+                        @Value("${minio.object-metadata.cache.ttl:5m}") Duration metadataCacheTtl,
+                        @Value("${minio.object-metadata.cache.maximum-size:10000}") long metadataCacheMaximumSize) {
+        if (cacheTtl.compareTo(presignedUrlExpiry) >= 0) {
+            throw new IllegalArgumentException("Presigned URL cache TTL must be shorter than the URL expiry");
+        }
         this.minioClient = minioClient;
+        this.presignedUrlExpiry = presignedUrlExpiry;
+        // A cached URL handed out just before its entry expires is still valid for (expiry - TTL)
+        this.presignedUrls = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, presignedUrls, PRESIGNED_URL_CACHE_NAME);
+        // Object keys are never overwritten, but another instance may delete one; the TTL bounds how long this one
+        // keeps answering for an object that is gone
+        this.objectMetadata = Caffeine.newBuilder()
+                .maximumSize(metadataCacheMaximumSize)
+                .expireAfterWrite(metadataCacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, objectMetadata, OBJECT_METADATA_CACHE_NAME);
+        this.deduplicatedUploads = Counter.builder(DEDUPLICATED_UPLOADS_METRIC)
+                .description("Uploads whose content was already stored and were not sent to MinIO again")
+                .register(meterRegistry);
     }
 
     @PostConstruct
@@ -41,38 +107,165 @@ public class MinioService {
         }
     }
 
+    /**
+     * Stores the file under the SHA-256 of its content, so identical uploads share one object. The file is already
+     * spooled by the multipart resolver, so hashing it first costs a local read and skips the PUT for known content.
+     */
     public String uploadFile(MultipartFile file) {
         try {
-            String objectKey = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-            InputStream inputStream = file.getInputStream();
+            MessageDigest digest = sha256();
+            try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+                inputStream.transferTo(OutputStream.nullOutputStream());
+            }
+            String objectKey = contentKey(digest);
+            if (exists(objectKey)) {
+                deduplicatedUploads.increment();
+                return objectKey;
+            }
+
+            try (InputStream inputStream = file.getInputStream()) {
+                minioClient.putObject(PutObjectArgs.builder()
+                        .bucket(bucket)
+                        .object(objectKey)
+                        .stream(inputStream, file.getSize(), -1)
+                        .contentType(file.getContentType())
+                        .build());
+            }
 
+            return objectKey;
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to upload file to MinIO: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Uploads a stream of unknown length to {@code stagingKey} as a MinIO multipart upload, hashing it on the way. The
+     * client buffers one part at a time, so memory stays at about {@code minio.upload.part-size} (at least 5MB) whatever
+     * the object size. Returns the content key for {@link #copyIfAbsent}; deleting the staging object is up to the caller.
+     */
+    public String uploadStream(String stagingKey, InputStream inputStream, String contentType) {
+        try {
+            MessageDigest digest = sha256();
             minioClient.putObject(PutObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(stagingKey)
+                    .stream(new DigestInputStream(inputStream, digest), -1, uploadPartSize.toBytes())
+                    .contentType(contentType)
+                    .build());
+            return contentKey(digest);
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to upload file to MinIO: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Server-side copy of a staged upload to its content key, skipped when that content is already stored.
+     */
+    public void copyIfAbsent(String sourceKey, String objectKey) {
+        if (exists(objectKey)) {
+            deduplicatedUploads.increment();
+            return;
+        }
+        try {
+            minioClient.copyObject(CopyObjectArgs.builder()
                     .bucket(bucket)
                     .object(objectKey)
-                    .stream(inputStream, file.getSize(), -1)
-                    .contentType(file.getContentType())
+                    .source(CopySource.builder().bucket(bucket).object(sourceKey).build())
                     .build());
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to copy file in MinIO: " + e.getMessage(), e);
+        }
+    }
 
-            return objectKey;
+    public void uploadBytes(String objectKey, byte[] content, String contentType) {
+        try {
+            minioClient.putObject(PutObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(objectKey)
+                    .stream(new ByteArrayInputStream(content), content.length, -1)
+                    .contentType(contentType)
+                    .build());
         } catch (Exception e) {
             throw new InfrastructureException("Failed to upload file to MinIO: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Signs a POST policy that only accepts an upload to exactly {@code objectKey}, with the given content type and
+     * at most {@code maxSize} bytes. MinIO enforces the conditions, so the bytes never pass through the API.
+     */
+    public Map<String, String> getPresignedPostFormData(String objectKey, String contentType, long maxSize,
+                                                        ZonedDateTime expiresAt) {
+        try {
+            PostPolicy policy = new PostPolicy(bucket, expiresAt);
+            policy.addEqualsCondition("key", objectKey);
+            policy.addEqualsCondition("Content-Type", contentType);
+            policy.addContentLengthRangeCondition(1, maxSize);
+            return minioClient.getPresignedPostFormData(policy);
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to generate presigned upload policy: " + e.getMessage(), e);
+        }
+    }
+
+    public String getBucketUrl() {
+        return endpoint + "/" + bucket;
+    }
+
     public String getPresignedUrl(String objectKey) {
+        return presignedUrls.get(objectKey, this::signUrl);
+    }
+
+    public StoredObject statFile(String objectKey) {
+        return objectMetadata.get(objectKey, this::loadMetadata);
+    }
+
+    /**
+     * Asks MinIO directly, bypassing the metadata cache, since another instance may have deleted the object.
+     */
+    public boolean exists(String objectKey) {
         try {
-            return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+            minioClient.statObject(StatObjectArgs.builder()
                     .bucket(bucket)
                     .object(objectKey)
-                    .method(Method.GET)
-                    .expiry(30, TimeUnit.MINUTES)
                     .build());
+            return true;
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                return false;
+            }
+            throw new InfrastructureException("Failed to read file metadata from MinIO: " + e.getMessage(), e);
         } catch (Exception e) {
-            throw new InfrastructureException("Failed to generate presigned URL: " + e.getMessage(), e);
+            throw new InfrastructureException("Failed to read file metadata from MinIO: " + e.getMessage(), e);
+        }
+    }
+
+    public InputStream downloadFile(String objectKey) {
+        try {
+            return minioClient.getObject(GetObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(objectKey)
+                    .build());
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to read file from MinIO: " + e.getMessage(), e);
+        }
+    }
+
+    public InputStream openFile(String objectKey, long offset, long length) {
+        try {
+            return minioClient.getObject(GetObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(objectKey)
+                    .offset(offset)
+                    .length(length)
+                    .build());
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to read file from MinIO: " + e.getMessage(), e);
         }
     }
 
     public void deleteFile(String objectKey) {
+        presignedUrls.invalidate(objectKey);
+        objectMetadata.invalidate(objectKey);
         try {
             minioClient.removeObject(RemoveObjectArgs.builder()
                     .bucket(bucket)
@@ -82,4 +275,46 @@ public class MinioService {
             throw new InfrastructureException("Failed to delete file from MinIO: " + e.getMessage(), e);
         }
     }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String contentKey(MessageDigest digest) {
+        return CONTENT_KEY_PREFIX + HexFormat.of().formatHex(digest.digest());
+    }
+
+    private String signUrl(String objectKey) {
+        try {
+            return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                    .bucket(bucket)
+                    .object(objectKey)
+                    .method(Method.GET)
+                    .expiry((int) presignedUrlExpiry.toSeconds(), TimeUnit.SECONDS)
+                    .build());
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to generate presigned URL: " + e.getMessage(), e);
+        }
+    }
+
+    private StoredObject loadMetadata(String objectKey) {
+        try {
+            StatObjectResponse stat = minioClient.statObject(StatObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(objectKey)
+                    .build());
+            return new StoredObject(objectKey, stat.contentType(), stat.size(), stat.etag(), stat.lastModified().toInstant());
+        } catch (ErrorResponseException e) {
+            if ("NoSuchKey".equals(e.errorResponse().code())) {
+                throw new ResourceNotFoundException("File not found in MinIO: " + objectKey);
+            }
+            throw new InfrastructureException("Failed to read file metadata from MinIO: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to read file metadata from MinIO: " + e.getMessage(), e);
+        }
+    }
 }
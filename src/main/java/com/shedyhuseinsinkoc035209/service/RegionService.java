@@ -2,17 +2,21 @@ package com.shedyhuseinsinkoc035209.service;
 
 import com.shedyhuseinsinkoc035209.client.RegionExternalClient;
 import com.shedyhuseinsinkoc035209.dto.RegionExternalDto;
+import com.shedyhuseinsinkoc035209.dto.RegionFetchResult;
+import com.shedyhuseinsinkoc035209.dto.RegionSyncResult;
 import com.shedyhuseinsinkoc035209.entity.Region;
+import com.shedyhuseinsinkoc035209.entity.RegionSyncState;
 import com.shedyhuseinsinkoc035209.repository.RegionRepository;
+import com.shedyhuseinsinkoc035209.repository.RegionSyncStateRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
 public class RegionService {
@@ -21,61 +25,61 @@ public class RegionService {
 
     private final RegionRepository regionRepository;
     private final RegionExternalClient regionExternalClient;
+    private final RegionSyncStateRepository regionSyncStateRepository;
+    private final TransactionTemplate transactionTemplate;
 
-    public RegionService(RegionRepository regionRepository, RegionExternalClient regionExternalClient) {
+    public RegionService(RegionRepository regionRepository, RegionExternalClient regionExternalClient,
+                         RegionSyncStateRepository regionSyncStateRepository, PlatformTransactionManager transactionManager) {
         this.regionRepository = regionRepository;
         this.regionExternalClient = regionExternalClient;
+        this.regionSyncStateRepository = regionSyncStateRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    public List<Region> findAll() {
-        return regionRepository.findAll();
-    }
-
-    public List<Region> findAllActive() {
-        return regionRepository.findByActiveTrue();
-    }
-
-    @Transactional
-    public List<Region> synchronize() {
+    /**
+     * Applies the external list as a set-based diff: one UPDATE deactivates removed and renamed regions and one
+     * INSERT ... SELECT adds the new and renamed ones, so the round trips do not grow with the number of regions.
+     * When the API reports the same list as the last synchronization, the diff is skipped altogether. The validators of
+     * the applied list live in {@code region_sync_state}, so every instance compares against the list that was actually
+     * committed, whichever instance applied it.
+     *
+     * <p>The external call, with its retries and backoff, runs outside any transaction so it never holds a pooled
+     * connection. Only the diff runs in a transaction, under the synchronization lock, where the stored hash is checked
+     * again in case another instance applied the same list in the meantime.
+     */
+    public RegionSyncResult synchronize() {
         LOG.info("Synchronizing regions with external API");
-        List<RegionExternalDto> externalRegions = regionExternalClient.fetchRegions();
-
-        Map<Integer, Region> activeRegionsMap = regionRepository.findByActiveTrue().stream()
-                .collect(Collectors.toMap(Region::getExternalId, r -> r));
-
-        Set<Integer> externalIds = externalRegions.stream()
-                .map(RegionExternalDto::id)
-                .collect(Collectors.toSet());
-
-        // Process external regions
-        for (RegionExternalDto dto : externalRegions) {
-            Region existing = activeRegionsMap.get(dto.id());
-
-            if (existing == null) {
-                // New region - insert
-                Region newRegion = new Region(dto.id(), dto.nome(), true);
-                regionRepository.save(newRegion);
-            } else if (existing.hasNameChanged(dto.nome())) {
-                // Name changed - deactivate old and insert new (different surrogate PKs)
-                existing.deactivate();
-                regionRepository.save(existing);
+        RegionFetchResult fetched = regionExternalClient.fetchRegions(regionSyncStateRepository.findState().validators());
+        if (fetched.isUnchanged()) {
+            LOG.info("Regions unchanged since the last synchronization");
+            return new RegionSyncResult(regionRepository.findByActiveTrue(), 0, 0);
+        }
+        return transactionTemplate.execute(status -> apply(fetched));
+    }
 
-                Region updated = new Region(dto.id(), dto.nome(), true);
-                regionRepository.save(updated);
-            }
+    private RegionSyncResult apply(RegionFetchResult fetched) {
+        regionRepository.lockSynchronization();
+        RegionSyncState state = regionSyncStateRepository.findState();
+        if (fetched.contentHash() != null && fetched.contentHash().equals(state.getContentHash())) {
+            LOG.info("Regions already synchronized by another instance");
+            return new RegionSyncResult(regionRepository.findByActiveTrue(), 0, 0);
         }
 
-        // Deactivate active regions missing from external API
-        for (Map.Entry<Integer, Region> entry : activeRegionsMap.entrySet()) {
-            if (!externalIds.contains(entry.getKey())) {
-                Region region = entry.getValue();
-                region.deactivate();
-                regionRepository.save(region);
-            }
+        // The first entry wins if the API ever lists an id twice, instead of inserting two active rows for it
+        Map<Integer, String> namesById = new LinkedHashMap<>();
+        for (RegionExternalDto dto : fetched.regions()) {
+            namesById.putIfAbsent(dto.id(), dto.nome());
         }
+        Integer[] externalIds = namesById.keySet().toArray(Integer[]::new);
+        String[] names = namesById.values().toArray(String[]::new);
+
+        int deactivated = regionRepository.deactivateAllNotIn(externalIds, names);
+        int inserted = regionRepository.insertActiveMissing(externalIds, names);
+        regionSyncStateRepository.markApplied(fetched.etag(), fetched.lastModified(), fetched.contentHash());
 
         List<Region> activeRegions = regionRepository.findByActiveTrue();
-        LOG.info("Region synchronization completed. Active regions: {}", activeRegions.size());
-        return activeRegions;
+        LOG.info("Region synchronization completed. Deactivated: {}, inserted: {}, active regions: {}",
+                deactivated, inserted, activeRegions.size());
+        return new RegionSyncResult(activeRegions, deactivated, inserted);
     }
 }
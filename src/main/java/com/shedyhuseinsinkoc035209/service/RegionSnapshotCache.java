@@ -0,0 +1,142 @@
+package com.shedyhuseinsinkoc035209.service;
+
+import com.shedyhuseinsinkoc035209.dto.RegionResponse;
+import com.shedyhuseinsinkoc035209.dto.RegionSnapshot;
+import com.shedyhuseinsinkoc035209.entity.Region;
+import com.shedyhuseinsinkoc035209.repository.RegionRepository;
+import com.shedyhuseinsinkoc035209.repository.RegionSyncStateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Region lists served from memory. Regions only change through a synchronization, so both lists are read and
+ * serialized once per applied synchronization and replaced together. A synchronization applied by another instance is
+ * noticed through the version in {@code region_sync_state}, which reads check at most once per
+ * {@code region.snapshot.version-check-interval}; in between, reads are answered without a query.
+ */
+@Component
+public class RegionSnapshotCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RegionSnapshotCache.class);
+
+    private final RegionRepository regionRepository;
+    private final RegionSyncStateRepository regionSyncStateRepository;
+    private final JsonMapper jsonMapper;
+    private final long versionCheckIntervalNanos;
+
+    // Null until the first load, and again after a failed refresh so the next read retries it
+    private volatile Snapshots snapshots;
+
+    // System.nanoTime() from which the next read checks the version; advanced by the one read that wins the CAS
+    private final AtomicLong nextVersionCheck = new AtomicLong();
+
+    public RegionSnapshotCache(RegionRepository regionRepository, RegionSyncStateRepository regionSyncStateRepository,
+                               JsonMapper jsonMapper,
+                               @Value("${region.snapshot.version-check-interval:5s}") Duration versionCheckInterval) {
+        this.regionRepository = regionRepository;
+        this.regionSyncStateRepository = regionSyncStateRepository;
+        this.jsonMapper = jsonMapper;
+        this.versionCheckIntervalNanos = versionCheckInterval.toNanos();
+    }
+
+    public RegionSnapshot active() {
+        return current().active();
+    }
+
+    public RegionSnapshot all() {
+        return current().all();
+    }
+
+    /**
+     * Loads the snapshot at startup. A failure is only logged, so an unreachable database does not stop the
+     * application from starting; the first read loads it instead.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to load region snapshot at startup, the first read will retry: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void refresh() {
+        try {
+            // Read before the lists, so a synchronization committed in between makes the next check reload again
+            long version = regionSyncStateRepository.findVersion();
+            List<Region> all = regionRepository.findAll(Sort.by("id"));
+            List<Region> active = all.stream().filter(Region::getActive).toList();
+            snapshots = new Snapshots(serialize(active), serialize(all), version);
+            nextVersionCheck.set(System.nanoTime() + versionCheckIntervalNanos);
+            LOG.info("Region snapshot refreshed with {} active of {} regions", active.size(), all.size());
+        } catch (RuntimeException e) {
+            snapshots = null;
+            throw e;
+        }
+    }
+
+    private Snapshots current() {
+        Snapshots current = snapshots;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshots == null) {
+                    refresh();
+                }
+                return snapshots;
+            }
+        }
+        long checkAt = nextVersionCheck.get();
+        long now = System.nanoTime();
+        if (now - checkAt >= 0 && nextVersionCheck.compareAndSet(checkAt, now + versionCheckIntervalNanos)) {
+            return checkVersion(current);
+        }
+        return current;
+    }
+
+    // Keeps serving the current snapshot when the check fails, as the lists are still valid if only stale
+    private Snapshots checkVersion(Snapshots current) {
+        try {
+            if (regionSyncStateRepository.findVersion() != current.version()) {
+                refresh();
+                return snapshots;
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to check region snapshot version, serving the loaded one: {}", e.getMessage());
+            synchronized (this) {
+                if (snapshots == null) {
+                    snapshots = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private RegionSnapshot serialize(List<Region> regions) {
+        byte[] body = jsonMapper.writeValueAsBytes(regions.stream().map(RegionResponse::fromEntity).toList());
+        return new RegionSnapshot(body, sha256(body));
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record Snapshots(RegionSnapshot active, RegionSnapshot all, long version) {
+    }
+}
@@ -0,0 +1,183 @@
+package com.shedyhuseinsinkoc035209.service;
+
+import com.shedyhuseinsinkoc035209.dto.RegionSyncResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs region synchronizations one at a time per instance, on a schedule and on demand. A trigger that arrives while
+ * a synchronization is running waits for it and gets its result instead of starting another one. Every successful
+ * run refreshes the {@link RegionSnapshotCache} before its result is handed out.
+ */
+@Service
+public class RegionSyncCoordinator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RegionSyncCoordinator.class);
+
+    static final String DURATION_METRIC = "regions.sync.duration";
+    static final String CHANGES_METRIC = "regions.sync.changes";
+    static final String COALESCED_METRIC = "regions.sync.coalesced";
+    static final String LAST_SUCCESS_METRIC = "regions.sync.last.success";
+
+    private final RegionService regionService;
+    private final RegionSnapshotCache regionSnapshotCache;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService scheduler;
+    private final boolean scheduleEnabled;
+    private final Duration interval;
+    private final Duration jitter;
+    private final AtomicReference<CompletableFuture<RegionSyncResult>> inFlight = new AtomicReference<>();
+    private final AtomicLong lastSuccessEpochSeconds = new AtomicLong();
+    private final Counter deactivatedRegions;
+    private final Counter insertedRegions;
+    private final Counter coalescedTriggers;
+
+    public RegionSyncCoordinator(RegionService regionService, RegionSnapshotCache regionSnapshotCache,
+                                 MeterRegistry meterRegistry,
+                                 @Qualifier("regionSyncScheduler") ScheduledExecutorService scheduler,
+                                 @Value("${region.sync.schedule.enabled:true}") boolean scheduleEnabled,
+                                 @Value("${region.sync.schedule.interval:1h}") Duration interval,
+                                 @Value("${region.sync.schedule.jitter:5m}") Duration jitter) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Region sync interval must be positive");
+        }
+        if (jitter.isNegative()) {
+            throw new IllegalArgumentException("Region sync jitter must not be negative");
+        }
+        this.regionService = regionService;
+        this.regionSnapshotCache = regionSnapshotCache;
+        this.meterRegistry = meterRegistry;
+        this.scheduler = scheduler;
+        this.scheduleEnabled = scheduleEnabled;
+        this.interval = interval;
+        this.jitter = jitter;
+        this.deactivatedRegions = Counter.builder(CHANGES_METRIC)
+                .description("Regions deactivated or inserted by synchronizations")
+                .tag("change", "deactivated")
+                .register(meterRegistry);
+        this.insertedRegions = Counter.builder(CHANGES_METRIC)
+                .description("Regions deactivated or inserted by synchronizations")
+                .tag("change", "inserted")
+                .register(meterRegistry);
+        this.coalescedTriggers = Counter.builder(COALESCED_METRIC)
+                .description("Synchronization triggers that joined a synchronization already running")
+                .register(meterRegistry);
+        // NaN until the first success, so a dashboard cannot mistake "never" for the epoch
+        Gauge.builder(LAST_SUCCESS_METRIC, lastSuccessEpochSeconds, last -> last.get() == 0 ? Double.NaN : last.get())
+                .description("When the last successful synchronization finished")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (scheduleEnabled) {
+            LOG.info("Scheduling region synchronization every {} with up to {} of jitter", interval, jitter);
+            scheduleNext();
+        }
+    }
+
+    public RegionSyncResult synchronize() {
+        CompletableFuture<RegionSyncResult> run = new CompletableFuture<>();
+        CompletableFuture<RegionSyncResult> running = inFlight.compareAndExchange(null, run);
+        if (running != null) {
+            coalescedTriggers.increment();
+            return await(running);
+        }
+
+        try {
+            RegionSyncResult result = timedSynchronize();
+            refreshSnapshot();
+            run.complete(result);
+        } catch (RuntimeException | Error e) {
+            run.completeExceptionally(e);
+        } finally {
+            inFlight.set(null);
+        }
+        return await(run);
+    }
+
+    /**
+     * The interval plus a random share of the jitter, so instances started together do not all call the API at once.
+     */
+    Duration nextDelay() {
+        long jitterMillis = jitter.isZero() ? 0 : ThreadLocalRandom.current().nextLong(jitter.toMillis() + 1);
+        return interval.plusMillis(jitterMillis);
+    }
+
+    private RegionSyncResult timedSynchronize() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            RegionSyncResult result = regionService.synchronize();
+            deactivatedRegions.increment(result.deactivated());
+            insertedRegions.increment(result.inserted());
+            lastSuccessEpochSeconds.set(Instant.now().getEpochSecond());
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder(DURATION_METRIC)
+                    .description("Time taken by region synchronizations")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    // The synchronization already committed, so a failed refresh only costs the next read a database round trip
+    private void refreshSnapshot() {
+        try {
+            regionSnapshotCache.refresh();
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to refresh region snapshot after synchronization: {}", e.getMessage());
+        }
+    }
+
+    private void scheduleNext() {
+        if (!scheduler.isShutdown()) {
+            scheduler.schedule(this::runScheduled, nextDelay().toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void runScheduled() {
+        try {
+            synchronize();
+        } catch (RuntimeException e) {
+            LOG.warn("Scheduled region synchronization failed: {}", e.getMessage());
+        } finally {
+            scheduleNext();
+        }
+    }
+
+    private static RegionSyncResult await(CompletableFuture<RegionSyncResult> run) {
+        try {
+            return run.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
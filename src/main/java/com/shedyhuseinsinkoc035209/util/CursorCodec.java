@@ -0,0 +1,34 @@
+package com.shedyhuseinsinkoc035209.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+public final class CursorCodec {
+
+    private static final int UUID_LENGTH = 36;
+    private static final char SEPARATOR = ':';
+
+    private CursorCodec() {
+    }
+
+    public static String encode(String sortKey, UUID id) {
+        String raw = id.toString() + SEPARATOR + sortKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (raw.length() <= UUID_LENGTH || raw.charAt(UUID_LENGTH) != SEPARATOR) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new Cursor(raw.substring(UUID_LENGTH + 1), UUID.fromString(raw.substring(0, UUID_LENGTH)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public record Cursor(String sortKey, UUID id) {
+    }
+}
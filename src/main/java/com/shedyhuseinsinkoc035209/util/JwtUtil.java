@@ -1,6 +1,8 @@
 package com.shedyhuseinsinkoc035209.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,75 +11,79 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    static final String ACCESS_TOKEN_TYPE = "access";
+    static final String REFRESH_TOKEN_TYPE = "refresh";
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
+    private static final String TYPE_CLAIM = "type";
+    private static final String ROLE_CLAIM = "role";
 
-    @Value("${jwt.refresh-expiration}")
-    private Long refreshExpiration;
+    private final Long expiration;
+    private final Long refreshExpiration;
 
-    public String generateToken(String username) {
-        return buildToken(username, expiration, "access");
+    // Key derivation and parser construction are done once; both are immutable and thread-safe
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") Long expiration,
+                   @Value("${jwt.refresh-expiration}") Long refreshExpiration) {
+        this.expiration = expiration;
+        this.refreshExpiration = refreshExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
+    public String generateToken(String username, String role) {
+        return buildToken(username, role, expiration, ACCESS_TOKEN_TYPE);
     }
 
     public String generateRefreshToken(String username) {
-        return buildToken(username, refreshExpiration, "refresh");
+        return buildToken(username, null, refreshExpiration, REFRESH_TOKEN_TYPE);
     }
 
-    private String buildToken(String username, Long expirationTime, String tokenType) {
+    private String buildToken(String username, String role, Long expirationTime, String tokenType) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expirationTime);
 
         return Jwts.builder()
                 .subject(username)
-                .claim("type", tokenType)
+                .claim(TYPE_CLAIM, tokenType)
+                .claim(ROLE_CLAIM, role)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public boolean isRefreshToken(String token) {
-        String type = extractClaims(token).get("type", String.class);
-        return "refresh".equals(type);
-    }
-
-    public boolean validateToken(String token) {
+    public Optional<VerifiedToken> verify(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            return Optional.of(toVerifiedToken(extractClaims(token)));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
         }
     }
 
-    public String extractUsername(String token) {
-        return extractClaims(token).getSubject();
-    }
-
-    public Date extractExpiration(String token) {
-        return extractClaims(token).getExpiration();
-    }
-
     private Claims extractClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    private VerifiedToken toVerifiedToken(Claims claims) {
+        Date issuedAt = claims.getIssuedAt();
+        Date expiresAt = claims.getExpiration();
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get(TYPE_CLAIM, String.class),
+                claims.get(ROLE_CLAIM, String.class),
+                issuedAt != null ? issuedAt.toInstant() : null,
+                expiresAt != null ? expiresAt.toInstant() : null
+        );
     }
 
     public Long getExpiration() {
@@ -0,0 +1,17 @@
+package com.shedyhuseinsinkoc035209.util;
+
+/**
+ * Escapes a search term for the hand-written {@code LIKE ... ESCAPE '\'} queries, so {@code %}, {@code _} and
+ * {@code \} typed by the user match themselves, as they did with the derived {@code ...ContainingIgnoreCase} methods.
+ */
+public final class LikePattern {
+
+    private LikePattern() {
+    }
+
+    public static String escape(String term) {
+        return term.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,16 @@
+package com.shedyhuseinsinkoc035209.util;
+
+import java.time.Instant;
+
+public record VerifiedToken(
+        String subject,
+        String type,
+        String role,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+
+    public boolean isRefreshToken() {
+        return JwtUtil.REFRESH_TOKEN_TYPE.equals(type);
+    }
+}
@@ -0,0 +1,2 @@
+CREATE INDEX idx_artists_name_id ON artists (name, id);
+CREATE INDEX idx_albums_title_id ON albums (title, id);
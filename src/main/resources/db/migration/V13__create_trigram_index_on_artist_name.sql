@@ -0,0 +1,4 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Lets LOWER(name) LIKE '%term%' (artist search and album-by-artist search) use an index instead of a sequential scan
+CREATE INDEX idx_artists_name_trgm ON artists USING gin (LOWER(name) gin_trgm_ops);
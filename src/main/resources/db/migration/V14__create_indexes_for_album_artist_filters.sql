@@ -0,0 +1,5 @@
+-- The primary key (artist_id, album_id) cannot serve lookups by album; the reversed pair lets the EXISTS probes
+-- from albums run as index-only scans
+CREATE INDEX idx_artist_album_album_id_artist_id ON artist_album (album_id, artist_id);
+
+CREATE INDEX idx_artists_type ON artists (type);
@@ -0,0 +1,5 @@
+-- Images are always listed per album; Postgres does not index foreign key columns on its own
+CREATE INDEX idx_album_images_album_id ON album_images (album_id);
+
+-- Synchronization keeps every superseded name as an inactive row, so the active set is a small slice of the table
+CREATE INDEX idx_regions_active_external_id ON regions (active, external_id);
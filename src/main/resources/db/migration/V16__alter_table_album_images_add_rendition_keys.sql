@@ -0,0 +1,3 @@
+-- Filled in asynchronously after upload; NULL until the rendition exists
+ALTER TABLE album_images ADD COLUMN thumbnail_object_key VARCHAR(500);
+ALTER TABLE album_images ADD COLUMN medium_object_key VARCHAR(500);
@@ -0,0 +1,2 @@
+-- Upload completion looks images up by object key, and a key must never be registered twice
+CREATE UNIQUE INDEX idx_album_images_object_key ON album_images (object_key);
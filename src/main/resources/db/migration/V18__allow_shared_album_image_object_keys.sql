@@ -0,0 +1,7 @@
+-- Content-addressed uploads (sha256/...) share one object between images, so only the other keys stay unique.
+-- Direct upload completion still relies on that uniqueness to be idempotent.
+DROP INDEX idx_album_images_object_key;
+
+CREATE INDEX idx_album_images_object_key ON album_images (object_key);
+
+CREATE UNIQUE INDEX idx_album_images_unique_object_key ON album_images (object_key) WHERE object_key NOT LIKE 'sha256/%';
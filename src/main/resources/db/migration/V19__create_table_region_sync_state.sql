@@ -0,0 +1,11 @@
+-- Single row describing the last external list applied to regions, shared by every instance.
+-- version grows with each applied list, so other instances can tell their in-memory copies are stale.
+CREATE TABLE region_sync_state (
+    id SMALLINT PRIMARY KEY CHECK (id = 1),
+    etag VARCHAR(512),
+    last_modified VARCHAR(100),
+    content_hash VARCHAR(64),
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO region_sync_state (id) VALUES (1);
@@ -1,25 +1,335 @@
 package com.shedyhuseinsinkoc035209.client;
 
+import com.shedyhuseinsinkoc035209.config.RegionExternalClientConfig;
+import com.shedyhuseinsinkoc035209.dto.RegionExternalDto;
+import com.shedyhuseinsinkoc035209.dto.RegionFetchResult;
+import com.shedyhuseinsinkoc035209.dto.RegionValidators;
 import com.shedyhuseinsinkoc035209.exception.ExternalApiException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class RegionExternalClientImplTest {
 
+    private static final String REGIONS = "[{\"id\":1,\"nome\":\"Sul\"},{\"id\":2,\"nome\":\"Norte\"}]";
+    private static final String LAST_MODIFIED = "Wed, 01 May 2024 10:15:30 GMT";
+
+    // Configured like the mapper Spring Boot provides, which ignores unknown properties
+    private static final JsonMapper JSON_MAPPER = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private SimpleMeterRegistry meterRegistry;
+    private final List<Map<String, String>> requests = new CopyOnWriteArrayList<>();
+    private volatile String body = REGIONS;
+    private volatile String etag = "\"v1\"";
+
+    // Faults injected by the stub: a delay before answering, then failureStatus for the next failuresLeft requests
+    private volatile long delayMillis;
+    private volatile int failureStatus = 503;
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        meterRegistry = new SimpleMeterRegistry();
+        serverExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/regionais", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
     @Test
     void fetchRegions_shouldThrowWhenApiUrlIsInvalid() {
-        RegionExternalClientImpl client = new RegionExternalClientImpl("http://invalid-host-that-does-not-exist:9999/api");
+        RegionExternalClientImpl client = client("http://invalid-host-that-does-not-exist:9999/api");
 
-        assertThatThrownBy(client::fetchRegions)
+        assertThatThrownBy(() -> client.fetchRegions(RegionValidators.none()))
                 .isInstanceOf(Exception.class);
     }
 
     @Test
     void constructor_shouldCreateClientWithUrl() {
-        RegionExternalClientImpl client = new RegionExternalClientImpl("http://localhost:8080/api");
+        RegionExternalClientImpl client = client("http://localhost:8080/api");
 
-        assertThatThrownBy(client::fetchRegions)
+        assertThatThrownBy(() -> client.fetchRegions(RegionValidators.none()))
                 .isInstanceOf(Exception.class);
     }
+
+    @Test
+    void fetchRegions_shouldReturnListWithValidators() {
+        RegionFetchResult result = client().fetchRegions(RegionValidators.none());
+
+        assertThat(result.isUnchanged()).isFalse();
+        assertThat(result.regions()).containsExactly(new RegionExternalDto(1, "Sul"), new RegionExternalDto(2, "Norte"));
+        assertThat(result.etag()).isEqualTo("\"v1\"");
+        assertThat(result.lastModified()).isEqualTo(LAST_MODIFIED);
+        assertThat(result.contentHash()).hasSize(64);
+        assertThat(requests.get(0)).doesNotContainKeys("If-None-Match", "If-Modified-Since");
+    }
+
+    @Test
+    void fetchRegions_shouldIgnoreFieldsTheDtoDoesNotDeclare() {
+        body = "[{\"id\":1,\"nome\":\"Sul\",\"sigla\":\"S\"}]";
+
+        RegionFetchResult result = client().fetchRegions(RegionValidators.none());
+
+        assertThat(result.regions()).containsExactly(new RegionExternalDto(1, "Sul"));
+    }
+
+    @Test
+    void fetchRegions_shouldSendValidatorsOfAppliedListAndReturnUnchangedOn304() {
+        RegionExternalClientImpl client = client();
+        RegionValidators applied = validatorsOf(client.fetchRegions(RegionValidators.none()));
+
+        RegionFetchResult result = client.fetchRegions(applied);
+
+        assertThat(result.isUnchanged()).isTrue();
+        assertThat(requests.get(1))
+                .containsEntry("If-None-Match", "\"v1\"")
+                .containsEntry("If-Modified-Since", LAST_MODIFIED)
+                .containsEntry("status", "304");
+    }
+
+    @Test
+    void fetchRegions_shouldReturnUnchangedWhenBodyHashMatchesWithoutValidators() {
+        etag = null;
+        RegionExternalClientImpl client = client();
+        RegionValidators applied = validatorsOf(client.fetchRegions(RegionValidators.none()));
+
+        RegionFetchResult result = client.fetchRegions(applied);
+
+        assertThat(result.isUnchanged()).isTrue();
+        assertThat(requests.get(1)).containsEntry("status", "200");
+    }
+
+    @Test
+    void fetchRegions_shouldReturnNewListWhenContentChanged() {
+        RegionExternalClientImpl client = client();
+        RegionValidators applied = validatorsOf(client.fetchRegions(RegionValidators.none()));
+        body = "[{\"id\":1,\"nome\":\"Sul\"}]";
+        etag = "\"v2\"";
+
+        RegionFetchResult result = client.fetchRegions(applied);
+
+        assertThat(result.regions()).containsExactly(new RegionExternalDto(1, "Sul"));
+        assertThat(result.etag()).isEqualTo("\"v2\"");
+    }
+
+    @Test
+    void fetchRegions_shouldFetchAgainWhenPreviousListWasNotApplied() {
+        RegionExternalClientImpl client = client();
+        client.fetchRegions(RegionValidators.none());
+
+        RegionFetchResult result = client.fetchRegions(RegionValidators.none());
+
+        assertThat(result.isUnchanged()).isFalse();
+        assertThat(requests.get(1)).doesNotContainKey("If-None-Match");
+    }
+
+    @Test
+    void fetchRegions_shouldThrowWhenBodyIsNotRegionList() {
+        body = "{\"erro\":true}";
+
+        assertThatThrownBy(() -> client().fetchRegions(RegionValidators.none()))
+                .isInstanceOf(ExternalApiException.class)
+                .hasMessageStartingWith("Failed to read regions from external API");
+    }
+
+    @Test
+    void fetchRegions_shouldRetryServerErrorsAndReturnListOnceUpstreamAnswers() {
+        failuresLeft.set(2);
+
+        RegionFetchResult result = client().fetchRegions(RegionValidators.none());
+
+        assertThat(result.regions()).hasSize(2);
+        assertThat(requests).extracting(request -> request.get("status")).containsExactly("503", "503", "200");
+    }
+
+    @Test
+    void fetchRegions_shouldGiveUpAfterMaxAttemptsWhenUpstreamHangs() {
+        delayMillis = 2000;
+
+        assertThatThrownBy(() -> client(Duration.ofMinutes(1), 10).fetchRegions(RegionValidators.none()))
+                .isInstanceOf(ExternalApiException.class)
+                .hasCauseInstanceOf(ResourceAccessException.class);
+
+        assertThat(requests).hasSize(3);
+    }
+
+    @Test
+    void fetchRegions_shouldNotRetryClientErrors() {
+        failureStatus = 404;
+        failuresLeft.set(5);
+
+        assertThatThrownBy(() -> client().fetchRegions(RegionValidators.none()))
+                .isInstanceOf(ExternalApiException.class);
+
+        assertThat(requests).hasSize(1);
+    }
+
+    @Test
+    void fetchRegions_shouldFailFastWithoutRequestsWhileCircuitIsOpen() {
+        failuresLeft.set(100);
+        RegionExternalClientImpl client = client();
+
+        // The second failure opens the breaker, so the third attempt is refused instead of sent
+        assertThatThrownBy(() -> client.fetchRegions(RegionValidators.none()))
+                .isInstanceOf(ExternalApiException.class)
+                .hasMessage("Regions API is unavailable, skipping calls until it recovers");
+        assertThatThrownBy(() -> client.fetchRegions(RegionValidators.none()))
+                .isInstanceOf(ExternalApiException.class)
+                .hasMessage("Regions API is unavailable, skipping calls until it recovers");
+
+        assertThat(requests).hasSize(2);
+        assertThat(circuitState("open")).isEqualTo(1.0);
+        assertThat(meterRegistry.get("resilience4j.circuitbreaker.not.permitted.calls").functionCounter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void fetchRegions_shouldCloseCircuitAgainWhenTrialCallSucceeds() throws InterruptedException {
+        failuresLeft.set(2);
+        RegionExternalClientImpl client = client(Duration.ofMillis(100));
+        assertThatThrownBy(() -> client.fetchRegions(RegionValidators.none()))
+                .isInstanceOf(ExternalApiException.class);
+        assertThat(circuitState("open")).isEqualTo(1.0);
+
+        Thread.sleep(200);
+        RegionFetchResult result = client.fetchRegions(RegionValidators.none());
+
+        assertThat(result.regions()).hasSize(2);
+        assertThat(circuitState("closed")).isEqualTo(1.0);
+    }
+
+    @Test
+    void fetchRegions_shouldWrapServerErrorAfterLastAttempt() {
+        failuresLeft.set(3);
+        RegionExternalClientImpl client = client(Duration.ofMinutes(1), 10);
+
+        assertThatThrownBy(() -> client.fetchRegions(RegionValidators.none()))
+                .isInstanceOf(ExternalApiException.class)
+                .hasCauseInstanceOf(HttpServerErrorException.class);
+
+        assertThat(requests).hasSize(3);
+    }
+
+    private double circuitState(String state) {
+        return meterRegistry.get("resilience4j.circuitbreaker.state").tag("state", state).gauge().value();
+    }
+
+    private static RegionValidators validatorsOf(RegionFetchResult result) {
+        return new RegionValidators(result.etag(), result.lastModified(), result.contentHash());
+    }
+
+    private RegionExternalClientImpl client() {
+        return client("http://localhost:" + server.getAddress().getPort() + "/regionais");
+    }
+
+    private RegionExternalClientImpl client(Duration waitDurationInOpenState) {
+        return client(waitDurationInOpenState, 2);
+    }
+
+    private RegionExternalClientImpl client(Duration waitDurationInOpenState, int minimumNumberOfCalls) {
+        return client("http://localhost:" + server.getAddress().getPort() + "/regionais", waitDurationInOpenState,
+                minimumNumberOfCalls);
+    }
+
+    private RegionExternalClientImpl client(String url) {
+        return client(url, Duration.ofMinutes(1), 2);
+    }
+
+    // Short timeouts and backoff, and a breaker that opens after two failed calls
+    private RegionExternalClientImpl client(String url, Duration waitDurationInOpenState, int minimumNumberOfCalls) {
+        RegionExternalClientConfig config = new RegionExternalClientConfig();
+        ReflectionTestUtils.setField(config, "connectTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(config, "readTimeout", Duration.ofMillis(300));
+        ReflectionTestUtils.setField(config, "retryMaxAttempts", 3);
+        ReflectionTestUtils.setField(config, "retryInitialBackoff", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(config, "retryMultiplier", 2.0);
+        ReflectionTestUtils.setField(config, "failureRateThreshold", 50f);
+        ReflectionTestUtils.setField(config, "slidingWindowSize", Math.max(4, minimumNumberOfCalls));
+        ReflectionTestUtils.setField(config, "minimumNumberOfCalls", minimumNumberOfCalls);
+        ReflectionTestUtils.setField(config, "waitDurationInOpenState", waitDurationInOpenState);
+        return new RegionExternalClientImpl(url, config.regionRestClient(), JSON_MAPPER,
+                config.regionApiCircuitBreaker(meterRegistry), config.regionApiRetry(meterRegistry));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        if (delayMillis > 0) {
+            requests.add(Map.of("status", "timeout"));
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.close();
+            return;
+        }
+        if (failuresLeft.getAndDecrement() > 0) {
+            requests.add(Map.of("status", String.valueOf(failureStatus)));
+            exchange.sendResponseHeaders(failureStatus, -1);
+            exchange.close();
+            return;
+        }
+
+        Map<String, String> request = new HashMap<>();
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+        if (ifNoneMatch != null) {
+            request.put("If-None-Match", ifNoneMatch);
+        }
+        if (ifModifiedSince != null) {
+            request.put("If-Modified-Since", ifModifiedSince);
+        }
+
+        String currentEtag = etag;
+        boolean notModified = currentEtag != null && currentEtag.equals(ifNoneMatch);
+        request.put("status", notModified ? "304" : "200");
+        requests.add(request);
+
+        if (currentEtag != null) {
+            exchange.getResponseHeaders().set("ETag", currentEtag);
+        }
+        exchange.getResponseHeaders().set("Last-Modified", LAST_MODIFIED);
+        if (notModified) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        byte[] content = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, content.length);
+        exchange.getResponseBody().write(content);
+        exchange.close();
+    }
 }
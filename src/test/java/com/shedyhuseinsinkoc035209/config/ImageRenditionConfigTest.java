@@ -0,0 +1,31 @@
+package com.shedyhuseinsinkoc035209.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageRenditionConfigTest {
+
+    @Test
+    void imageRenditionExecutor_shouldBoundWorkersAndQueue() {
+        ImageRenditionConfig config = new ImageRenditionConfig();
+        ReflectionTestUtils.setField(config, "concurrency", 2);
+        ReflectionTestUtils.setField(config, "queueCapacity", 10);
+
+        ExecutorService executor = config.imageRenditionExecutor();
+
+        try {
+            assertThat(executor).isInstanceOf(ThreadPoolExecutor.class);
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+            assertThat(pool.getMaximumPoolSize()).isEqualTo(2);
+            assertThat(pool.getQueue().remainingCapacity()).isEqualTo(10);
+            assertThat(pool.getRejectedExecutionHandler()).isInstanceOf(ThreadPoolExecutor.AbortPolicy.class);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
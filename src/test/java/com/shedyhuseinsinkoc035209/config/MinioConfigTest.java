@@ -4,6 +4,9 @@ import io.minio.MinioClient;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class MinioConfigTest {
@@ -19,4 +22,23 @@ class MinioConfigTest {
 
         assertThat(client).isNotNull();
     }
+
+    @Test
+    void minioUploadExecutor_shouldBoundWorkersAndQueue() {
+        MinioConfig config = new MinioConfig();
+        ReflectionTestUtils.setField(config, "uploadConcurrency", 3);
+        ReflectionTestUtils.setField(config, "uploadQueueCapacity", 20);
+
+        ExecutorService executor = config.minioUploadExecutor();
+
+        try {
+            assertThat(executor).isInstanceOf(ThreadPoolExecutor.class);
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+            assertThat(pool.getMaximumPoolSize()).isEqualTo(3);
+            assertThat(pool.getQueue().remainingCapacity()).isEqualTo(20);
+            assertThat(pool.getRejectedExecutionHandler()).isInstanceOf(ThreadPoolExecutor.AbortPolicy.class);
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
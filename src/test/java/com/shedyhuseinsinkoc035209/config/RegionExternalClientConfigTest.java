@@ -0,0 +1,80 @@
+package com.shedyhuseinsinkoc035209.config;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RegionExternalClientConfigTest {
+
+    private RegionExternalClientConfig config;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        config = new RegionExternalClientConfig();
+        ReflectionTestUtils.setField(config, "connectTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(config, "readTimeout", Duration.ofMillis(300));
+        ReflectionTestUtils.setField(config, "retryMaxAttempts", 3);
+        ReflectionTestUtils.setField(config, "retryInitialBackoff", Duration.ofMillis(10));
+        ReflectionTestUtils.setField(config, "retryMultiplier", 2.0);
+        ReflectionTestUtils.setField(config, "failureRateThreshold", 50f);
+        ReflectionTestUtils.setField(config, "slidingWindowSize", 4);
+        ReflectionTestUtils.setField(config, "minimumNumberOfCalls", 2);
+        ReflectionTestUtils.setField(config, "waitDurationInOpenState", Duration.ofMinutes(1));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void regionApiCircuitBreaker_shouldApplyConfigurationAndExportStateMetrics() {
+        CircuitBreaker circuitBreaker = config.regionApiCircuitBreaker(meterRegistry);
+
+        assertThat(circuitBreaker.getCircuitBreakerConfig().getFailureRateThreshold()).isEqualTo(50f);
+        assertThat(circuitBreaker.getCircuitBreakerConfig().getMinimumNumberOfCalls()).isEqualTo(2);
+        assertThat(meterRegistry.get("resilience4j.circuitbreaker.state")
+                .tag("name", RegionExternalClientConfig.REGION_API).tag("state", "closed").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void regionApiCircuitBreaker_shouldOnlyRecordTransientFailures() {
+        CircuitBreaker circuitBreaker = config.regionApiCircuitBreaker(meterRegistry);
+
+        HttpClientErrorException notFound = HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found",
+                new HttpHeaders(), new byte[0], StandardCharsets.UTF_8);
+        circuitBreaker.onError(0, TimeUnit.MILLISECONDS, notFound);
+        circuitBreaker.onError(0, TimeUnit.MILLISECONDS, notFound);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void regionApiRetry_shouldRetryTransientFailuresOnly() {
+        Retry retry = config.regionApiRetry(meterRegistry);
+
+        assertThat(retry.getRetryConfig().getMaxAttempts()).isEqualTo(3);
+        assertThat(retry.getRetryConfig().getExceptionPredicate())
+                .accepts(new ResourceAccessException("timeout"),
+                        HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable",
+                                new HttpHeaders(), new byte[0], StandardCharsets.UTF_8))
+                .rejects(new IllegalStateException("unreadable body"));
+        assertThat(meterRegistry.find("resilience4j.retry.calls").meters()).isNotEmpty();
+    }
+
+    @Test
+    void regionRestClient_shouldBeCreated() {
+        assertThat(config.regionRestClient()).isNotNull();
+    }
+}
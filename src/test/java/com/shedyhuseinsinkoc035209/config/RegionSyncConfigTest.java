@@ -0,0 +1,24 @@
+package com.shedyhuseinsinkoc035209.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RegionSyncConfigTest {
+
+    @Test
+    void regionSyncScheduler_shouldRunTasksOnNamedThread() throws Exception {
+        ScheduledExecutorService scheduler = new RegionSyncConfig().regionSyncScheduler();
+
+        try {
+            String threadName = scheduler.schedule(() -> Thread.currentThread().getName(), 0, TimeUnit.MILLISECONDS)
+                    .get(5, TimeUnit.SECONDS);
+            assertThat(threadName).isEqualTo("region-sync-0");
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+}
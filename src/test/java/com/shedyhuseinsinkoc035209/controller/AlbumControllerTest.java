@@ -3,6 +3,7 @@ package com.shedyhuseinsinkoc035209.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.shedyhuseinsinkoc035209.dto.AlbumRequest;
 import com.shedyhuseinsinkoc035209.dto.AlbumResponse;
+import com.shedyhuseinsinkoc035209.dto.CursorPage;
 import com.shedyhuseinsinkoc035209.entity.ArtistType;
 import com.shedyhuseinsinkoc035209.service.AlbumService;
 import org.junit.jupiter.api.BeforeEach;
@@ -103,6 +104,17 @@ class AlbumControllerTest {
                 .andExpect(jsonPath("$.content[0].title").value("Test Album"));
     }
 
+    @Test
+    void findAllByCursor_shouldReturn200WithoutNextCursorOnLastPage() throws Exception {
+        AlbumResponse response = createAlbumResponse();
+        when(albumService.findAllByCursor(null, 20)).thenReturn(new CursorPage<>(List.of(response), 1, null));
+
+        mockMvc.perform(get("/api/v1/albums/cursor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Test Album"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
     @Test
     void findByArtistType_shouldReturn200() throws Exception {
         AlbumResponse response = createAlbumResponse();
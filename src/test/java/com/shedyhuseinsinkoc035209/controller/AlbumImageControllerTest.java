@@ -1,6 +1,10 @@
 package com.shedyhuseinsinkoc035209.controller;
 
 import com.shedyhuseinsinkoc035209.dto.AlbumImageResponse;
+import com.shedyhuseinsinkoc035209.dto.ImageUploadCompletion;
+import com.shedyhuseinsinkoc035209.dto.ImageUploadRequest;
+import com.shedyhuseinsinkoc035209.dto.ImageUploadTicket;
+import com.shedyhuseinsinkoc035209.dto.StoredObject;
 import com.shedyhuseinsinkoc035209.service.AlbumImageService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,23 +12,39 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.ByteArrayInputStream;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -50,7 +70,7 @@ class AlbumImageControllerTest {
         UUID albumId = UUID.randomUUID();
         AlbumImageResponse imageResponse = new AlbumImageResponse(
                 UUID.randomUUID(), albumId, "test.jpg", "image/jpeg",
-                "http://minio:9000/bucket/test.jpg", LocalDateTime.now());
+                "http://minio:9000/bucket/test.jpg", Map.of(), LocalDateTime.now());
         when(albumImageService.uploadImages(eq(albumId), any())).thenReturn(List.of(imageResponse));
 
         MockMultipartFile file = new MockMultipartFile("files", "test.jpg", "image/jpeg", "image-data".getBytes());
@@ -61,12 +81,68 @@ class AlbumImageControllerTest {
                 .andExpect(jsonPath("$[0].fileName").value("test.jpg"));
     }
 
+    @Test
+    void uploadImageStream_shouldPassRawBodyAndReturn201() throws Exception {
+        UUID albumId = UUID.randomUUID();
+        AlbumImageResponse imageResponse = new AlbumImageResponse(
+                UUID.randomUUID(), albumId, "cover.png", "image/png",
+                "http://minio:9000/bucket/cover.png", Map.of(), LocalDateTime.now());
+        when(albumImageService.uploadImageStream(eq(albumId), eq("cover.png"), eq("image/png"), anyLong(), any()))
+                .thenReturn(imageResponse);
+
+        mockMvc.perform(put("/api/v1/albums/{albumId}/images/stream", albumId)
+                        .param("fileName", "cover.png")
+                        .contentType(MediaType.IMAGE_PNG)
+                        .content("image-data".getBytes()))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.fileName").value("cover.png"));
+    }
+
+    @Test
+    void uploadImageStream_shouldRejectNonImageBodies() throws Exception {
+        mockMvc.perform(put("/api/v1/albums/{albumId}/images/stream", UUID.randomUUID())
+                        .param("fileName", "notes.txt")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("text"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    void createUploadTicket_shouldReturn200WithPolicy() throws Exception {
+        UUID albumId = UUID.randomUUID();
+        ImageUploadTicket ticket = new ImageUploadTicket(albumId + "/uuid_cover.jpg", "http://minio:9000/album-images",
+                Map.of("policy", "abc"), Instant.now().plusSeconds(900));
+        when(albumImageService.createUploadTicket(albumId, new ImageUploadRequest("cover.jpg", "image/jpeg", 2048))).thenReturn(ticket);
+
+        mockMvc.perform(post("/api/v1/albums/{albumId}/images/uploads", albumId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fileName\":\"cover.jpg\",\"contentType\":\"image/jpeg\",\"size\":2048}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.objectKey").value(albumId + "/uuid_cover.jpg"))
+                .andExpect(jsonPath("$.formData.policy").value("abc"));
+    }
+
+    @Test
+    void completeUpload_shouldReturn201() throws Exception {
+        UUID albumId = UUID.randomUUID();
+        AlbumImageResponse imageResponse = new AlbumImageResponse(
+                UUID.randomUUID(), albumId, "cover.jpg", "image/jpeg",
+                "http://minio:9000/bucket/cover.jpg", Map.of(), LocalDateTime.now());
+        when(albumImageService.completeUpload(albumId, new ImageUploadCompletion(albumId + "/uuid_cover.jpg"))).thenReturn(imageResponse);
+
+        mockMvc.perform(post("/api/v1/albums/{albumId}/images/uploads/complete", albumId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"objectKey\":\"" + albumId + "/uuid_cover.jpg\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.fileName").value("cover.jpg"));
+    }
+
     @Test
     void getImagesByAlbumId_shouldReturn200() throws Exception {
         UUID albumId = UUID.randomUUID();
         AlbumImageResponse imageResponse = new AlbumImageResponse(
                 UUID.randomUUID(), albumId, "test.jpg", "image/jpeg",
-                "http://minio:9000/bucket/test.jpg", LocalDateTime.now());
+                "http://minio:9000/bucket/test.jpg", Map.of(), LocalDateTime.now());
         when(albumImageService.getImagesByAlbumId(albumId)).thenReturn(List.of(imageResponse));
 
         mockMvc.perform(get("/api/v1/albums/{albumId}/images", albumId))
@@ -82,4 +158,71 @@ class AlbumImageControllerTest {
         mockMvc.perform(delete("/api/v1/albums/images/{imageId}", imageId))
                 .andExpect(status().isNoContent());
     }
+
+    @Test
+    void getImageContent_shouldStreamWholeImageWithCacheHeaders() throws Exception {
+        UUID imageId = UUID.randomUUID();
+        StoredObject object = new StoredObject("uuid_test.jpg", "image/jpeg", 4, "abc", Instant.parse("2024-05-01T10:15:30Z"));
+        when(albumImageService.getImageContent(imageId)).thenReturn(object);
+        when(albumImageService.openImageContent(object, 0, 4)).thenReturn(new ByteArrayInputStream("data".getBytes()));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/albums/images/{imageId}/content", imageId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("private")))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(content().bytes("data".getBytes()));
+    }
+
+    @Test
+    void getImageContent_shouldReturn206ForSingleRange() throws Exception {
+        UUID imageId = UUID.randomUUID();
+        StoredObject object = new StoredObject("uuid_test.jpg", "image/jpeg", 4, "abc", Instant.parse("2024-05-01T10:15:30Z"));
+        when(albumImageService.getImageContent(imageId)).thenReturn(object);
+        when(albumImageService.openImageContent(object, 1, 2)).thenReturn(new ByteArrayInputStream("at".getBytes()));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/albums/images/{imageId}/content", imageId)
+                        .header(HttpHeaders.RANGE, "bytes=1-2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1-2/4"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 2))
+                .andExpect(content().bytes("at".getBytes()));
+    }
+
+    @Test
+    void getImageContent_shouldReturn304WithoutReadingObjectWhenEtagMatches() throws Exception {
+        UUID imageId = UUID.randomUUID();
+        StoredObject object = new StoredObject("uuid_test.jpg", "image/jpeg", 4, "abc", Instant.parse("2024-05-01T10:15:30Z"));
+        when(albumImageService.getImageContent(imageId)).thenReturn(object);
+
+        mockMvc.perform(get("/api/v1/albums/images/{imageId}/content", imageId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=1800")));
+
+        verify(albumImageService, never()).openImageContent(any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void getImageContent_shouldReturn416ForUnsatisfiableRange() throws Exception {
+        UUID imageId = UUID.randomUUID();
+        StoredObject object = new StoredObject("uuid_test.jpg", "image/jpeg", 4, "abc", Instant.parse("2024-05-01T10:15:30Z"));
+        when(albumImageService.getImageContent(imageId)).thenReturn(object);
+
+        mockMvc.perform(get("/api/v1/albums/images/{imageId}/content", imageId)
+                        .header(HttpHeaders.RANGE, "bytes=10-20"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */4"));
+    }
 }
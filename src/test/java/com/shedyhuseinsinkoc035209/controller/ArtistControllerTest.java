@@ -4,6 +4,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.shedyhuseinsinkoc035209.dto.ArtistRequest;
 import com.shedyhuseinsinkoc035209.dto.ArtistResponse;
+import com.shedyhuseinsinkoc035209.dto.ArtistSuggestion;
+import com.shedyhuseinsinkoc035209.dto.CursorPage;
 import com.shedyhuseinsinkoc035209.entity.ArtistType;
 import com.shedyhuseinsinkoc035209.service.ArtistService;
 import org.junit.jupiter.api.BeforeEach;
@@ -103,6 +105,19 @@ class ArtistControllerTest {
                 .andExpect(jsonPath("$.content[0].name").value("Test Artist"));
     }
 
+    @Test
+    void findAllByCursor_shouldReturn200WithNextCursor() throws Exception {
+        ArtistResponse response = createArtistResponse();
+        when(artistService.findAllByCursor("abc", 10)).thenReturn(new CursorPage<>(List.of(response), 1, "def"));
+
+        mockMvc.perform(get("/api/v1/artists/cursor")
+                        .param("cursor", "abc")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Test Artist"))
+                .andExpect(jsonPath("$.nextCursor").value("def"));
+    }
+
     @Test
     void update_shouldReturn200() throws Exception {
         UUID id = UUID.randomUUID();
@@ -140,6 +155,18 @@ class ArtistControllerTest {
                 .andExpect(jsonPath("$.content[0].name").value("Test Artist"));
     }
 
+    @Test
+    void suggest_shouldReturn200() throws Exception {
+        ArtistSuggestion suggestion = new ArtistSuggestion(UUID.randomUUID(), "Test Artist", ArtistType.SOLO);
+        when(artistService.suggest("te", 5)).thenReturn(List.of(suggestion));
+
+        mockMvc.perform(get("/api/v1/artists/suggest")
+                        .param("q", "te")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Test Artist"));
+    }
+
     @Test
     void findByType_shouldReturn200() throws Exception {
         ArtistResponse response = createArtistResponse();
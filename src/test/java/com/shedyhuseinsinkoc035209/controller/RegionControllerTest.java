@@ -1,32 +1,46 @@
 package com.shedyhuseinsinkoc035209.controller;
 
+import com.shedyhuseinsinkoc035209.dto.RegionSnapshot;
+import com.shedyhuseinsinkoc035209.dto.RegionSyncResult;
 import com.shedyhuseinsinkoc035209.entity.Region;
-import com.shedyhuseinsinkoc035209.service.RegionService;
+import com.shedyhuseinsinkoc035209.service.RegionSnapshotCache;
+import com.shedyhuseinsinkoc035209.service.RegionSyncCoordinator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 class RegionControllerTest {
 
+    private static final RegionSnapshot ACTIVE = new RegionSnapshot(
+            "[{\"id\":1,\"externalId\":1,\"name\":\"Sul\",\"active\":true}]".getBytes(StandardCharsets.UTF_8), "abc");
+
     private MockMvc mockMvc;
 
     @Mock
-    private RegionService regionService;
+    private RegionSnapshotCache regionSnapshotCache;
+
+    @Mock
+    private RegionSyncCoordinator regionSyncCoordinator;
 
     @InjectMocks
     private RegionController regionController;
@@ -34,14 +48,13 @@ class RegionControllerTest {
     @BeforeEach
     void setUp() {
         mockMvc = MockMvcBuilders.standaloneSetup(regionController)
-                .setMessageConverters(new JacksonJsonHttpMessageConverter())
+                .setMessageConverters(new ByteArrayHttpMessageConverter(), new JacksonJsonHttpMessageConverter())
                 .build();
     }
 
     @Test
     void findAll_shouldReturn200() throws Exception {
-        Region region = new Region(1, "Sul", true);
-        when(regionService.findAll()).thenReturn(List.of(region));
+        when(regionSnapshotCache.all()).thenReturn(ACTIVE);
 
         mockMvc.perform(get("/api/v1/regions"))
                 .andExpect(status().isOk())
@@ -49,20 +62,34 @@ class RegionControllerTest {
     }
 
     @Test
-    void findAllActive_shouldReturn200() throws Exception {
-        Region region = new Region(1, "Sul", true);
-        when(regionService.findAllActive()).thenReturn(List.of(region));
+    void findAllActive_shouldReturnSnapshotBytesWithEtag() throws Exception {
+        when(regionSnapshotCache.active()).thenReturn(ACTIVE);
 
         mockMvc.perform(get("/api/v1/regions/active"))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(content().contentType("application/json"))
+                .andExpect(content().bytes(ACTIVE.body()))
                 .andExpect(jsonPath("$[0].name").value("Sul"))
                 .andExpect(jsonPath("$[0].active").value(true));
     }
 
+    @Test
+    void findAllActive_shouldReturn304WhenEtagMatches() throws Exception {
+        when(regionSnapshotCache.active()).thenReturn(ACTIVE);
+
+        mockMvc.perform(get("/api/v1/regions/active")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"abc\""))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
     @Test
     void synchronize_shouldReturn200() throws Exception {
         Region region = new Region(1, "Sul", true);
-        when(regionService.synchronize()).thenReturn(List.of(region));
+        when(regionSyncCoordinator.synchronize()).thenReturn(new RegionSyncResult(List.of(region), 0, 1));
 
         mockMvc.perform(post("/api/v1/regions/sync"))
                 .andExpect(status().isOk())
@@ -42,6 +42,15 @@ class AlbumImageTest {
         assertThat(image.getContentType()).isEqualTo("image/png");
     }
 
+    @Test
+    void getRenditionObjectKey_shouldBeNullUntilRenditionsAreGenerated() {
+        AlbumImage image = AlbumImage.create(new Album("Test", 2020), "f.jpg", "k", "image/jpeg");
+
+        assertThat(image.getRenditionObjectKey(ImageRendition.THUMBNAIL)).isNull();
+        assertThat(image.getRenditionObjectKey(ImageRendition.MEDIUM)).isNull();
+        assertThat(ImageRendition.THUMBNAIL.objectKeyFor("k")).isEqualTo("k.thumbnail.jpg");
+    }
+
     @Test
     void onCreate_shouldSetCreatedAt() {
         AlbumImage image = AlbumImage.create(new Album("Test", 2020), "f.jpg", "k", "image/jpeg");
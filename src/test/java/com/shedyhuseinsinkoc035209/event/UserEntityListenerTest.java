@@ -0,0 +1,48 @@
+package com.shedyhuseinsinkoc035209.event;
+
+import com.shedyhuseinsinkoc035209.entity.Role;
+import com.shedyhuseinsinkoc035209.entity.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UserEntityListenerTest {
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private UserEntityListener userEntityListener;
+
+    @Test
+    void onUserChanged_shouldPublishEventWithUsername() {
+        User user = new User(UUID.randomUUID(), "admin", "$2a$10$encodedpassword", Role.ADMIN);
+
+        userEntityListener.onUserChanged(user);
+
+        verify(eventPublisher).publishEvent(new UserChangedEvent(null, "admin"));
+    }
+
+    @Test
+    void onUserChanged_shouldPublishLoadedAndCurrentUsernameAfterRename() {
+        User user = new User(UUID.randomUUID(), "root", "$2a$10$encodedpassword", Role.ADMIN);
+        ReflectionTestUtils.setField(user, "loadedUsername", "admin");
+
+        userEntityListener.onUserChanged(user);
+
+        ArgumentCaptor<UserChangedEvent> event = ArgumentCaptor.forClass(UserChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().usernames()).containsExactlyInAnyOrder("admin", "root");
+    }
+}
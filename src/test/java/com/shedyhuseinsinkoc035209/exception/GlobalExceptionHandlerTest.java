@@ -75,6 +75,18 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getBody()).containsEntry("message", "Failed to fetch regions");
     }
 
+    @Test
+    void handlePayloadTooLarge_shouldReturn413() {
+        PayloadTooLargeException ex = new PayloadTooLargeException("Image exceeds the maximum size of 100MB");
+
+        ResponseEntity<Map<String, Object>> response = handler.handlePayloadTooLarge(ex);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONTENT_TOO_LARGE);
+        assertThat(response.getBody()).containsEntry("status", 413);
+        assertThat(response.getBody()).containsEntry("error", "Content Too Large");
+        assertThat(response.getBody()).containsEntry("message", "Image exceeds the maximum size of 100MB");
+    }
+
     @Test
     void handleRuntime_shouldReturn400() {
         RuntimeException ex = new RuntimeException("Artist not found");
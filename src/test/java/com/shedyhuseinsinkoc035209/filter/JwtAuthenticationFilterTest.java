@@ -1,12 +1,14 @@
 package com.shedyhuseinsinkoc035209.filter;
 
+import com.shedyhuseinsinkoc035209.event.UserChangedEvent;
 import com.shedyhuseinsinkoc035209.service.CustomUserDetailsService;
-import com.shedyhuseinsinkoc035209.util.JwtUtil;
+import com.shedyhuseinsinkoc035209.util.VerifiedToken;
+import com.shedyhuseinsinkoc035209.util.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockHttpServletRequest;
@@ -15,20 +17,25 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.times;
 
 @ExtendWith(MockitoExtension.class)
 class JwtAuthenticationFilterTest {
 
     @Mock
-    private JwtUtil jwtUtil;
+    private VerifiedTokenCache verifiedTokenCache;
 
     @Mock
     private CustomUserDetailsService userDetailsService;
@@ -36,12 +43,12 @@ class JwtAuthenticationFilterTest {
     @Mock
     private FilterChain filterChain;
 
-    @InjectMocks
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
     @BeforeEach
     void setUp() {
         SecurityContextHolder.clearContext();
+        jwtAuthenticationFilter = filter("database");
     }
 
     @Test
@@ -106,8 +113,8 @@ class JwtAuthenticationFilterTest {
         request.addHeader("Authorization", "Bearer valid-token");
         MockHttpServletResponse response = new MockHttpServletResponse();
 
-        when(jwtUtil.validateToken("valid-token")).thenReturn(true);
-        when(jwtUtil.extractUsername("valid-token")).thenReturn("admin");
+        VerifiedToken verified = new VerifiedToken("admin", "access", "ADMIN", Instant.now(), Instant.now().plusSeconds(300));
+        when(verifiedTokenCache.verify("valid-token")).thenReturn(Optional.of(verified));
         UserDetails userDetails = new User("admin", "password",
                 Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMIN")));
         when(userDetailsService.loadUserByUsername("admin")).thenReturn(userDetails);
@@ -125,7 +132,7 @@ class JwtAuthenticationFilterTest {
         request.addHeader("Authorization", "Bearer invalid-token");
         MockHttpServletResponse response = new MockHttpServletResponse();
 
-        when(jwtUtil.validateToken("invalid-token")).thenReturn(false);
+        when(verifiedTokenCache.verify("invalid-token")).thenReturn(Optional.empty());
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -142,7 +149,7 @@ class JwtAuthenticationFilterTest {
 
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtil, never()).validateToken(anyString());
+        verify(verifiedTokenCache, never()).verify(anyString());
     }
 
     @Test
@@ -155,6 +162,126 @@ class JwtAuthenticationFilterTest {
 
         assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtil, never()).validateToken(anyString());
+        verify(verifiedTokenCache, never()).verify(anyString());
+    }
+
+    @Test
+    void doFilterInternal_statelessMode_shouldBuildAuthenticationFromClaimsWithinRevalidationInterval() throws Exception {
+        enableStatelessMode();
+        when(verifiedTokenCache.verify("valid-token")).thenReturn(Optional.of(accessToken("ADMIN")));
+        when(userDetailsService.loadUserByUsername("admin")).thenReturn(userWithRole("ROLE_ADMIN"));
+
+        for (int i = 0; i < 3; i++) {
+            SecurityContextHolder.clearContext();
+            MockHttpServletRequest request = new MockHttpServletRequest();
+            request.addHeader("Authorization", "Bearer valid-token");
+
+            jwtAuthenticationFilter.doFilterInternal(request, new MockHttpServletResponse(), filterChain);
+
+            assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo("admin");
+            assertThat(SecurityContextHolder.getContext().getAuthentication().getAuthorities())
+                    .extracting("authority").containsExactly("ROLE_ADMIN");
+        }
+
+        verify(userDetailsService, times(1)).loadUserByUsername("admin");
+    }
+
+    @Test
+    void doFilterInternal_statelessMode_shouldUseSamePrincipalTypeAsDatabaseMode() throws Exception {
+        enableStatelessMode();
+        when(verifiedTokenCache.verify("valid-token")).thenReturn(Optional.of(accessToken("ADMIN")));
+        when(userDetailsService.loadUserByUsername("admin")).thenReturn(userWithRole("ROLE_ADMIN"));
+
+        authenticate("valid-token");
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal())
+                .isInstanceOfSatisfying(UserDetails.class, user -> assertThat(user.getUsername()).isEqualTo("admin"));
+    }
+
+    @Test
+    void doFilterInternal_statelessMode_shouldRevalidateAfterUserChangedEvent() throws Exception {
+        enableStatelessMode();
+        when(verifiedTokenCache.verify("valid-token")).thenReturn(Optional.of(accessToken("ADMIN")));
+        when(userDetailsService.loadUserByUsername("admin"))
+                .thenReturn(userWithRole("ROLE_ADMIN"))
+                .thenThrow(new UsernameNotFoundException("User not found: admin"));
+
+        authenticate("valid-token");
+        jwtAuthenticationFilter.onUserChanged(new UserChangedEvent("admin", "admin"));
+        authenticate("valid-token");
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(userDetailsService, times(2)).loadUserByUsername("admin");
+    }
+
+    @Test
+    void doFilterInternal_statelessMode_shouldRejectTokenWhenRoleChanged() throws Exception {
+        enableStatelessMode();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer valid-token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(verifiedTokenCache.verify("valid-token")).thenReturn(Optional.of(accessToken("ADMIN")));
+        when(userDetailsService.loadUserByUsername("admin")).thenReturn(userWithRole("ROLE_USER"));
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_statelessMode_shouldRejectTokenWhenUserRemoved() throws Exception {
+        enableStatelessMode();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer valid-token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(verifiedTokenCache.verify("valid-token")).thenReturn(Optional.of(accessToken("ADMIN")));
+        when(userDetailsService.loadUserByUsername("admin")).thenThrow(new UsernameNotFoundException("User not found: admin"));
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_statelessMode_shouldLoadUserWhenTokenHasNoRoleClaim() throws Exception {
+        enableStatelessMode();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer legacy-token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(verifiedTokenCache.verify("legacy-token")).thenReturn(Optional.of(accessToken(null)));
+        when(userDetailsService.loadUserByUsername("admin")).thenReturn(userWithRole("ROLE_ADMIN"));
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isInstanceOf(UserDetails.class);
+    }
+
+    private void enableStatelessMode() {
+        jwtAuthenticationFilter = filter("stateless");
+    }
+
+    private JwtAuthenticationFilter filter(String authenticationMode) {
+        return new JwtAuthenticationFilter(verifiedTokenCache, userDetailsService, new SimpleMeterRegistry(),
+                authenticationMode, Duration.ofMinutes(5), 100);
+    }
+
+    private void authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtAuthenticationFilter.doFilterInternal(request, new MockHttpServletResponse(), filterChain);
+    }
+
+    private VerifiedToken accessToken(String role) {
+        return new VerifiedToken("admin", "access", role, Instant.now(), Instant.now().plusSeconds(300));
+    }
+
+    private UserDetails userWithRole(String authority) {
+        return new User("admin", "password", Collections.singletonList(new SimpleGrantedAuthority(authority)));
     }
 }
@@ -0,0 +1,165 @@
+package com.shedyhuseinsinkoc035209.repository;
+
+import com.shedyhuseinsinkoc035209.dto.AlbumArtistName;
+import com.shedyhuseinsinkoc035209.dto.AlbumRequest;
+import com.shedyhuseinsinkoc035209.dto.AlbumResponse;
+import com.shedyhuseinsinkoc035209.dto.CursorPage;
+import com.shedyhuseinsinkoc035209.entity.Album;
+import com.shedyhuseinsinkoc035209.entity.Artist;
+import com.shedyhuseinsinkoc035209.entity.ArtistType;
+import com.shedyhuseinsinkoc035209.service.AlbumService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class AlbumRepositoryTest extends AbstractRepositoryTest {
+
+    @Autowired
+    private AlbumRepository albumRepository;
+
+    @Autowired
+    private ArtistRepository artistRepository;
+
+    private AlbumService albumService;
+
+    @BeforeEach
+    void setUp() {
+        albumService = new AlbumService(albumRepository, artistRepository, mock(SimpMessagingTemplate.class));
+    }
+
+    @Test
+    void findArtistNamesByAlbumIds_shouldReturnArtistsOfEveryRequestedAlbum() {
+        List<UUID> albumIds = albumRepository.findAll().stream().map(Album::getId).toList();
+
+        List<AlbumArtistName> rows = albumRepository.findArtistNamesByAlbumIds(albumIds);
+
+        assertThat(rows).extracting(AlbumArtistName::albumId).containsAll(albumIds);
+        assertThat(rows).extracting(AlbumArtistName::artistName).contains("Serj Tankian", "Guns N' Roses");
+    }
+
+    @Test
+    void findAll_shouldUseSameNumberOfStatementsRegardlessOfPageSize() {
+        resetStatementCount();
+        Page<AlbumResponse> small = albumService.findAll(PageRequest.of(0, 2));
+        long smallPageStatements = statementCount();
+
+        resetStatementCount();
+        Page<AlbumResponse> large = albumService.findAll(PageRequest.of(0, 10));
+        long largePageStatements = statementCount();
+
+        assertThat(small.getContent()).allSatisfy(album -> assertThat(album.artistNames()).isNotEmpty());
+        assertThat(large.getContent()).hasSize(10).allSatisfy(album -> assertThat(album.artistNames()).isNotEmpty());
+        // page + count + artist names
+        assertThat(largePageStatements).isEqualTo(smallPageStatements).isEqualTo(3);
+    }
+
+    @Test
+    void findAll_shouldNotLoadEntitiesIntoPersistenceContext() {
+        resetStatementCount();
+
+        albumService.findAll(PageRequest.of(0, 10));
+
+        assertThat(statistics().getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findAllByCursor_shouldWalkEveryAlbumOnceWithoutCountQuery() {
+        List<UUID> seen = new ArrayList<>();
+        String cursor = null;
+
+        do {
+            resetStatementCount();
+            CursorPage<AlbumResponse> page = albumService.findAllByCursor(cursor, 4);
+            // keyset page + artist names, never a count
+            assertThat(statementCount()).isEqualTo(2);
+            page.content().forEach(album -> seen.add(album.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).doesNotHaveDuplicates().hasSize((int) albumRepository.count());
+    }
+
+    @Test
+    void findByArtistType_shouldUseSameNumberOfStatementsRegardlessOfPageSize() {
+        resetStatementCount();
+        albumService.findByArtistType(ArtistType.SOLO, PageRequest.of(0, 2));
+        long smallPageStatements = statementCount();
+
+        resetStatementCount();
+        albumService.findByArtistType(ArtistType.SOLO, PageRequest.of(0, 8));
+        long largePageStatements = statementCount();
+
+        assertThat(largePageStatements).isEqualTo(smallPageStatements).isEqualTo(3);
+    }
+
+    @Test
+    void findByArtistName_withRelevanceOrder_shouldRankClosestArtistFirst() {
+        Page<AlbumResponse> albums = albumService.findByArtistName("mi", "relevance", PageRequest.of(0, 20));
+
+        // "Mike Shinoda" and "Michel Teló" both match; every album of either artist comes back exactly once
+        assertThat(albums.getTotalElements()).isEqualTo(7);
+        assertThat(albums.getContent()).extracting(AlbumResponse::id).doesNotHaveDuplicates();
+        assertThat(albums.getContent()).allSatisfy(album -> assertThat(album.artistNames())
+                .anyMatch(name -> name.toLowerCase().contains("mi")));
+    }
+
+    @Test
+    void update_shouldRelinkArtistsWithoutLoadingTheirOtherAlbums() {
+        UUID serjTankian = UUID.fromString("a1111111-1111-1111-1111-111111111111");
+        UUID mikeShinoda = UUID.fromString("a2222222-2222-2222-2222-222222222222");
+        UUID albumId = albumRepository.findArtistNamesByAlbumIds(albumRepository.findAll().stream().map(Album::getId).toList())
+                .stream()
+                .filter(row -> row.artistName().equals("Serj Tankian"))
+                .findFirst().orElseThrow().albumId();
+        resetStatementCount();
+
+        AlbumResponse response = albumService.update(albumId, new AlbumRequest("Relinked", 2024, Set.of(serjTankian, mikeShinoda)));
+        entityManager.flush();
+
+        assertThat(response.artistNames()).containsExactly("Mike Shinoda", "Serj Tankian");
+        assertThat(statistics().getEntityStatistics(Album.class.getName()).getLoadCount()).isEqualTo(1);
+        resetStatementCount();
+        assertThat(albumService.findById(albumId).artistNames()).containsExactly("Mike Shinoda", "Serj Tankian");
+    }
+
+    @Test
+    void findByArtistName_shouldMatchWildcardCharactersLiterally() {
+        Artist artist = new Artist("100%_Live", ArtistType.BAND);
+        Album album = new Album("Wildcards", 2024);
+        artist.addAlbum(album);
+        entityManager.persist(album);
+        entityManager.persist(artist);
+
+        for (String order : List.of("asc", "relevance")) {
+            assertThat(albumService.findByArtistName("%", order, PageRequest.of(0, 20)).getContent())
+                    .extracting(AlbumResponse::id).containsExactly(album.getId());
+            assertThat(albumService.findByArtistName("_", order, PageRequest.of(0, 20)).getContent())
+                    .extracting(AlbumResponse::id).containsExactly(album.getId());
+            assertThat(albumService.findByArtistName("0%L", order, PageRequest.of(0, 20)).getTotalElements()).isZero();
+        }
+    }
+
+    @Test
+    void findByArtistName_shouldUseSameNumberOfStatementsRegardlessOfPageSize() {
+        resetStatementCount();
+        albumService.findByArtistName("a", "asc", PageRequest.of(0, 2));
+        long smallPageStatements = statementCount();
+
+        resetStatementCount();
+        albumService.findByArtistName("a", "asc", PageRequest.of(0, 5));
+        long largePageStatements = statementCount();
+
+        assertThat(largePageStatements).isEqualTo(smallPageStatements).isEqualTo(3);
+    }
+}
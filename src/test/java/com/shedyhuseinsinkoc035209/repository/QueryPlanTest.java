@@ -0,0 +1,186 @@
+package com.shedyhuseinsinkoc035209.repository;
+
+import com.shedyhuseinsinkoc035209.dto.AlbumSummary;
+import com.shedyhuseinsinkoc035209.entity.ArtistType;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.jdbc.Sql;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the execution plans of the repository methods that filter on indexed columns. Runs on its own database seeded with a large dataset, since
+ * on the handful of seed rows Postgres rightly prefers sequential scans for everything.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.shedyhuseinsinkoc035209.repository.RecordingStatementInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Sql(scripts = "/sql/query-plan-dataset.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS)
+class QueryPlanTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer POSTGRES = new PostgreSQLContainer("postgres:15-alpine");
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private AlbumRepository albumRepository;
+
+    @Autowired
+    private ArtistRepository artistRepository;
+
+    @Autowired
+    private AlbumImageRepository albumImageRepository;
+
+    @Autowired
+    private RegionRepository regionRepository;
+
+    @BeforeEach
+    void setUp() {
+        RecordingStatementInspector.clear();
+    }
+
+    @Test
+    void findSummariesByArtistType_shouldFilterWithSemiJoinInsteadOfDistinct() {
+        Page<AlbumSummary> page = albumRepository.findSummariesByArtistType(ArtistType.BAND, PageRequest.of(0, PAGE_SIZE));
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(RecordingStatementInspector.statements()).hasSize(2)
+                .allSatisfy(sql -> assertThat(sql).containsIgnoringCase("exists").doesNotContainIgnoringCase("distinct"));
+        assertThat(page.getTotalElements()).isEqualTo(distinctAlbumCount("ar.type = 'BAND'"));
+    }
+
+    @Test
+    void findSummariesByArtistType_shouldReachAlbumsThroughTypeIndex() {
+        albumRepository.findSummariesByArtistType(ArtistType.BAND, PageRequest.of(0, PAGE_SIZE));
+
+        assertThat(explain(pageQuery(), "BAND")).contains("idx_artists_type")
+                .doesNotContain("Seq Scan on albums").doesNotContain("Seq Scan on artist_album");
+        assertThat(explain(countQuery(), "BAND")).contains("idx_artists_type")
+                .doesNotContain("Seq Scan on albums").doesNotContain("Seq Scan on artist_album");
+    }
+
+    @Test
+    void findSummariesByArtistNameContaining_shouldFilterWithSemiJoinInsteadOfDistinct() {
+        Page<AlbumSummary> page = albumRepository.findSummariesByArtistNameContaining("4242", PageRequest.of(0, PAGE_SIZE));
+
+        assertThat(page.getContent()).hasSize(PAGE_SIZE);
+        assertThat(RecordingStatementInspector.statements()).hasSize(2)
+                .allSatisfy(sql -> assertThat(sql).containsIgnoringCase("exists").doesNotContainIgnoringCase("distinct"));
+        assertThat(page.getTotalElements()).isEqualTo(distinctAlbumCount("ar.name LIKE '%4242%'"));
+    }
+
+    @Test
+    void findSummariesByArtistNameContaining_shouldReachAlbumsThroughTrigramIndex() {
+        albumRepository.findSummariesByArtistNameContaining("4242", PageRequest.of(0, PAGE_SIZE));
+
+        assertThat(explain(pageQuery(), "4242")).contains("idx_artists_name_trgm")
+                .doesNotContain("Seq Scan on albums").doesNotContain("Seq Scan on artist_album");
+        assertThat(explain(countQuery(), "4242")).contains("idx_artists_name_trgm")
+                .doesNotContain("Seq Scan on albums").doesNotContain("Seq Scan on artist_album");
+    }
+
+    @Test
+    void findResponsesByType_shouldUseTypeIndex() {
+        artistRepository.findResponsesByType(ArtistType.BAND, PageRequest.of(0, PAGE_SIZE));
+
+        assertThat(explain(pageQuery(), "BAND")).contains("idx_artists_type").doesNotContain("Seq Scan");
+        assertThat(explain(countQuery(), "BAND")).contains("idx_artists_type").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void findByNameContainingIgnoreCaseAndType_shouldUseTypeIndex() {
+        artistRepository.findByNameContainingIgnoreCaseAndType("plan", ArtistType.BAND, PageRequest.of(0, PAGE_SIZE));
+
+        assertThat(explain(pageQuery(), "%plan%", "BAND")).contains("idx_artists_type").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void findByAlbumId_shouldUseAlbumIdIndex() {
+        UUID albumId = entityManager.createQuery("SELECT i.album.id FROM AlbumImage i", UUID.class)
+                .setMaxResults(1)
+                .getSingleResult();
+        RecordingStatementInspector.clear();
+
+        assertThat(albumImageRepository.findByAlbumId(albumId)).hasSize(1);
+
+        assertThat(explain(pageQuery(), albumId)).contains("idx_album_images_album_id").doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void findByActiveTrue_shouldUseActiveIndex() {
+        assertThat(regionRepository.findByActiveTrue()).hasSize(2500);
+
+        assertThat(explain(pageQuery())).contains("idx_regions_active_external_id").doesNotContain("Seq Scan");
+    }
+
+    private long distinctAlbumCount(String artistFilter) {
+        return (Long) entityManager.createQuery("SELECT COUNT(DISTINCT al) FROM Artist ar JOIN ar.albums al WHERE " + artistFilter)
+                .getSingleResult();
+    }
+
+    /**
+     * The first recorded statement that is not a count query.
+     */
+    private String pageQuery() {
+        return RecordingStatementInspector.statements().stream()
+                .filter(sql -> !isCount(sql))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private String countQuery() {
+        return RecordingStatementInspector.statements().stream()
+                .filter(QueryPlanTest::isCount)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static boolean isCount(String sql) {
+        return sql.toLowerCase().startsWith("select count(");
+    }
+
+    /**
+     * Runs EXPLAIN on a captured statement, binding the given values in order and the page size to any remaining
+     * placeholder (the row limit Hibernate appends).
+     */
+    private String explain(String sql, Object... parameters) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            List<String> lines = new ArrayList<>();
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                long placeholders = sql.chars().filter(c -> c == '?').count();
+                for (int i = 0; i < placeholders; i++) {
+                    statement.setObject(i + 1, i < parameters.length ? parameters[i] : PAGE_SIZE);
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    while (rs.next()) {
+                        lines.add(rs.getString(1));
+                    }
+                }
+            }
+            return String.join("\n", lines);
+        });
+    }
+}
@@ -0,0 +1,128 @@
+package com.shedyhuseinsinkoc035209.repository;
+
+import com.shedyhuseinsinkoc035209.dto.RegionExternalDto;
+import com.shedyhuseinsinkoc035209.dto.RegionFetchResult;
+import com.shedyhuseinsinkoc035209.dto.RegionValidators;
+import com.shedyhuseinsinkoc035209.entity.Region;
+import com.shedyhuseinsinkoc035209.service.RegionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class RegionRepositoryTest extends AbstractRepositoryTest {
+
+    @Autowired
+    private RegionRepository regionRepository;
+
+    @Autowired
+    private RegionSyncStateRepository regionSyncStateRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private List<RegionExternalDto> externalRegions;
+    private boolean unchanged;
+    private RegionService regionService;
+
+    @BeforeEach
+    void setUp() {
+        externalRegions = new ArrayList<>();
+        regionService = new RegionService(regionRepository,
+                applied -> unchanged ? RegionFetchResult.unchanged() : RegionFetchResult.changed(externalRegions),
+                regionSyncStateRepository, transactionManager);
+        regionRepository.saveAll(List.of(
+                new Region(1, "Sul", true),
+                new Region(2, "Norte", true),
+                new Region(3, "Leste", true),
+                new Region(3, "Leste Antigo", false)));
+    }
+
+    @Test
+    void synchronize_shouldInsertDeactivateAndRenameInOnePass() {
+        externalRegions.addAll(List.of(
+                new RegionExternalDto(1, "Sul"),
+                new RegionExternalDto(2, "Norte Atualizado"),
+                new RegionExternalDto(4, "Oeste")));
+
+        List<Region> active = regionService.synchronize().activeRegions();
+
+        assertThat(active).extracting(Region::getExternalId, Region::getName)
+                .containsExactlyInAnyOrder(tuple(1, "Sul"), tuple(2, "Norte Atualizado"), tuple(4, "Oeste"));
+        assertThat(regionRepository.findAll()).filteredOn(region -> !region.getActive())
+                .extracting(Region::getExternalId, Region::getName)
+                .containsExactlyInAnyOrder(tuple(2, "Norte"), tuple(3, "Leste"), tuple(3, "Leste Antigo"));
+    }
+
+    @Test
+    void synchronize_shouldLeaveUnchangedRegionsAlone() {
+        externalRegions.addAll(List.of(
+                new RegionExternalDto(1, "Sul"),
+                new RegionExternalDto(2, "Norte"),
+                new RegionExternalDto(3, "Leste")));
+        List<Long> idsBefore = regionRepository.findByActiveTrue().stream().map(Region::getId).toList();
+
+        regionService.synchronize();
+
+        assertThat(regionRepository.findByActiveTrue()).extracting(Region::getId).containsExactlyInAnyOrderElementsOf(idsBefore);
+        assertThat(regionRepository.count()).isEqualTo(4);
+    }
+
+    @Test
+    void synchronize_shouldUseSameNumberOfStatementsRegardlessOfRegionCount() {
+        externalRegions.addAll(regions(10));
+        resetStatementCount();
+        regionService.synchronize();
+        long fewRegionsStatements = statementCount();
+
+        externalRegions.clear();
+        externalRegions.addAll(regions(2000));
+        resetStatementCount();
+        regionService.synchronize();
+        long manyRegionsStatements = statementCount();
+
+        // sync state + lock + update + insert + sync state update + active list; the test shares one persistence
+        // context, so the state read again under the lock comes from it
+        assertThat(manyRegionsStatements).isEqualTo(fewRegionsStatements).isEqualTo(6);
+        assertThat(regionRepository.findByActiveTrue()).hasSize(2000);
+    }
+
+    @Test
+    void synchronize_shouldOnlyReadActiveRegionsWhenListIsUnchanged() {
+        unchanged = true;
+        resetStatementCount();
+
+        List<Region> active = regionService.synchronize().activeRegions();
+
+        // sync state + active list
+        assertThat(statementCount()).isEqualTo(2);
+        assertThat(active).extracting(Region::getExternalId).containsExactlyInAnyOrder(1, 2, 3);
+    }
+
+    @Test
+    void synchronize_shouldCompareAgainstListAppliedByAnotherInstance() {
+        List<RegionValidators> sent = new ArrayList<>();
+        RegionFetchResult fetched = new RegionFetchResult(List.of(new RegionExternalDto(1, "Sul")), "\"v1\"", null, "hash-v1");
+        new RegionService(regionRepository, applied -> fetched, regionSyncStateRepository, transactionManager).synchronize();
+        RegionService otherInstance = new RegionService(regionRepository, applied -> {
+            sent.add(applied);
+            return "hash-v1".equals(applied.contentHash()) ? RegionFetchResult.unchanged() : fetched;
+        }, regionSyncStateRepository, transactionManager);
+
+        otherInstance.synchronize();
+
+        assertThat(sent).containsExactly(new RegionValidators("\"v1\"", null, "hash-v1"));
+        assertThat(regionSyncStateRepository.findState().getVersion()).isEqualTo(1);
+    }
+
+    private static List<RegionExternalDto> regions(int count) {
+        return IntStream.rangeClosed(1, count).mapToObj(id -> new RegionExternalDto(id, "Regional " + id)).toList();
+    }
+}
@@ -1,28 +1,55 @@
 package com.shedyhuseinsinkoc035209.service;
 
 import com.shedyhuseinsinkoc035209.dto.AlbumImageResponse;
+import com.shedyhuseinsinkoc035209.dto.ImageUploadCompletion;
+import com.shedyhuseinsinkoc035209.dto.ImageUploadRequest;
+import com.shedyhuseinsinkoc035209.dto.ImageUploadTicket;
+import com.shedyhuseinsinkoc035209.dto.StoredObject;
 import com.shedyhuseinsinkoc035209.entity.Album;
 import com.shedyhuseinsinkoc035209.entity.AlbumImage;
+import com.shedyhuseinsinkoc035209.exception.InfrastructureException;
+import com.shedyhuseinsinkoc035209.exception.PayloadTooLargeException;
 import com.shedyhuseinsinkoc035209.exception.ResourceNotFoundException;
 import com.shedyhuseinsinkoc035209.repository.AlbumImageRepository;
 import com.shedyhuseinsinkoc035209.repository.AlbumRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -38,7 +65,12 @@ class AlbumImageServiceTest {
     @Mock
     private MinioService minioService;
 
-    @InjectMocks
+    @Mock
+    private ImageRenditionService imageRenditionService;
+
+    @Mock
+    private ImageReferenceService imageReferenceService;
+
     private AlbumImageService albumImageService;
 
     private UUID albumId;
@@ -46,6 +78,9 @@ class AlbumImageServiceTest {
 
     @BeforeEach
     void setUp() {
+        albumImageService = new AlbumImageService(albumImageRepository, albumRepository, minioService, imageRenditionService,
+                imageReferenceService, Runnable::run, Duration.ofMinutes(1), DataSize.ofMegabytes(10), Duration.ofMinutes(15),
+                DataSize.ofMegabytes(1));
         albumId = UUID.randomUUID();
         album = new Album(albumId, "Test Album", null);
     }
@@ -59,13 +94,129 @@ class AlbumImageServiceTest {
 
         AlbumImage savedImage = new AlbumImage(UUID.randomUUID(), album, "test.jpg", "uuid_test.jpg", "image/jpeg");
         ReflectionTestUtils.setField(savedImage, "createdAt", LocalDateTime.now());
-        when(albumImageRepository.save(any(AlbumImage.class))).thenReturn(savedImage);
+        when(imageReferenceService.saveAll(anyList(), any())).thenReturn(List.of(savedImage));
 
         List<AlbumImageResponse> responses = albumImageService.uploadImages(albumId, new MockMultipartFile[]{file});
 
         assertThat(responses).hasSize(1);
         assertThat(responses.get(0).fileName()).isEqualTo("test.jpg");
         assertThat(responses.get(0).url()).isEqualTo("http://minio/presigned");
+        assertThat(responses.get(0).renditionUrls()).isEmpty();
+        verify(imageRenditionService).generateAsync(savedImage);
+    }
+
+    @Test
+    void uploadImages_shouldUploadEveryFileAndSaveAllRowsAtOnce() {
+        MockMultipartFile first = new MockMultipartFile("files", "a.jpg", "image/jpeg", "a".getBytes());
+        MockMultipartFile second = new MockMultipartFile("files", "b.png", "image/png", "b".getBytes());
+        when(albumRepository.findById(albumId)).thenReturn(Optional.of(album));
+        when(minioService.uploadFile(first)).thenReturn("key_a.jpg");
+        when(minioService.uploadFile(second)).thenReturn("key_b.png");
+        when(imageReferenceService.saveAll(anyList(), any())).thenAnswer(invocation -> {
+            List<AlbumImage> images = invocation.getArgument(0);
+            images.forEach(image -> ReflectionTestUtils.setField(image, "createdAt", LocalDateTime.now()));
+            return images;
+        });
+        when(minioService.getPresignedUrl("key_a.jpg")).thenReturn("http://minio/a");
+        when(minioService.getPresignedUrl("key_b.png")).thenReturn("http://minio/b");
+
+        List<AlbumImageResponse> responses = albumImageService.uploadImages(albumId, new MockMultipartFile[]{first, second});
+
+        assertThat(responses).extracting(AlbumImageResponse::fileName).containsExactly("a.jpg", "b.png");
+        assertThat(responses).extracting(AlbumImageResponse::url).containsExactly("http://minio/a", "http://minio/b");
+    }
+
+    @Test
+    void uploadImages_shouldRemoveUploadedObjectsWhenAnUploadFails() {
+        MockMultipartFile first = new MockMultipartFile("files", "a.jpg", "image/jpeg", "a".getBytes());
+        MockMultipartFile second = new MockMultipartFile("files", "b.jpg", "image/jpeg", "b".getBytes());
+        when(albumRepository.findById(albumId)).thenReturn(Optional.of(album));
+        when(minioService.uploadFile(first)).thenReturn("key_a.jpg");
+        when(minioService.uploadFile(second)).thenThrow(new InfrastructureException("Failed to upload file to MinIO", null));
+
+        assertThatThrownBy(() -> albumImageService.uploadImages(albumId, new MockMultipartFile[]{first, second}))
+                .isInstanceOf(InfrastructureException.class);
+
+        verify(imageReferenceService).deleteIfUnreferenced("key_a.jpg");
+        verify(imageReferenceService, never()).saveAll(anyList(), any());
+    }
+
+    @Test
+    void uploadImages_shouldRemoveUploadedObjectsWhenSaveFails() {
+        MockMultipartFile file = new MockMultipartFile("files", "a.jpg", "image/jpeg", "a".getBytes());
+        when(albumRepository.findById(albumId)).thenReturn(Optional.of(album));
+        when(minioService.uploadFile(file)).thenReturn("key_a.jpg");
+        when(imageReferenceService.saveAll(anyList(), any())).thenThrow(new IllegalStateException("db down"));
+
+        assertThatThrownBy(() -> albumImageService.uploadImages(albumId, new MockMultipartFile[]{file}))
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(imageReferenceService).deleteIfUnreferenced("key_a.jpg");
+    }
+
+    @Test
+    void uploadImages_shouldFailWithoutWaitingForeverAndRemoveObjectsOfLateUploads() {
+        List<Runnable> pending = new CopyOnWriteArrayList<>();
+        AlbumImageService service = serviceWithUploadExecutor(pending::add, Duration.ofMillis(50));
+        MockMultipartFile file = new MockMultipartFile("files", "a.jpg", "image/jpeg", "a".getBytes());
+        when(albumRepository.findById(albumId)).thenReturn(Optional.of(album));
+        when(minioService.uploadFile(file)).thenReturn("key_a.jpg");
+
+        assertThatThrownBy(() -> service.uploadImages(albumId, new MockMultipartFile[]{file}))
+                .isInstanceOf(InfrastructureException.class)
+                .hasMessageContaining("Timed out");
+        verify(imageReferenceService, never()).deleteIfUnreferenced(anyString());
+
+        pending.forEach(Runnable::run);
+
+        verify(imageReferenceService).deleteIfUnreferenced("key_a.jpg");
+        verify(imageReferenceService, never()).saveAll(anyList(), any());
+    }
+
+    @Test
+    void uploadImages_shouldRemoveUploadedObjectsWhenUploadQueueIsFull() {
+        Executor fullAfterFirst = new Executor() {
+            private boolean accepted;
+
+            @Override
+            public void execute(Runnable task) {
+                if (accepted) {
+                    throw new RejectedExecutionException("queue full");
+                }
+                accepted = true;
+                task.run();
+            }
+        };
+        AlbumImageService service = serviceWithUploadExecutor(fullAfterFirst, Duration.ofMinutes(1));
+        MockMultipartFile first = new MockMultipartFile("files", "a.jpg", "image/jpeg", "a".getBytes());
+        MockMultipartFile second = new MockMultipartFile("files", "b.jpg", "image/jpeg", "b".getBytes());
+        when(albumRepository.findById(albumId)).thenReturn(Optional.of(album));
+        when(minioService.uploadFile(first)).thenReturn("key_a.jpg");
+
+        assertThatThrownBy(() -> service.uploadImages(albumId, new MockMultipartFile[]{first, second}))
+                .isInstanceOf(InfrastructureException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+
+        verify(imageReferenceService).deleteIfUnreferenced("key_a.jpg");
+        verify(minioService, never()).uploadFile(second);
+    }
+
+    @Test
+    void uploadImages_shouldUploadAgainWhenSharedObjectWasRemovedMeanwhile() {
+        MockMultipartFile file = new MockMultipartFile("files", "a.jpg", "image/jpeg", "a".getBytes());
+        when(albumRepository.findById(albumId)).thenReturn(Optional.of(album));
+        when(minioService.uploadFile(file)).thenReturn("sha256/abc");
+        when(imageReferenceService.saveAll(anyList(), any())).thenAnswer(invocation -> {
+            Consumer<String> restoreObject = invocation.getArgument(1);
+            restoreObject.accept("sha256/abc");
+            List<AlbumImage> images = invocation.getArgument(0);
+            images.forEach(image -> ReflectionTestUtils.setField(image, "createdAt", LocalDateTime.now()));
+            return images;
+        });
+
+        albumImageService.uploadImages(albumId, new MockMultipartFile[]{file});
+
+        verify(minioService, times(2)).uploadFile(file);
     }
 
     @Test
@@ -79,6 +230,206 @@ class AlbumImageServiceTest {
                 .hasMessageContaining("Album not found");
     }
 
+    @Test
+    void uploadImageStream_shouldStoreStreamUnderContentKeyAndQueueRenditions() {
+        when(albumRepository.findById(albumId)).thenReturn(Optional.of(album));
+        when(minioService.uploadStream(startsWith("staging/"), any(InputStream.class), eq("image/png"))).thenReturn("sha256/abc");
+        when(imageReferenceService.saveAll(anyList(), any())).thenAnswer(invocation -> {
+            List<AlbumImage> images = invocation.getArgument(0);
+            images.forEach(image -> ReflectionTestUtils.setField(image, "createdAt", LocalDateTime.now()));
+            return images;
+        });
+        when(minioService.getPresignedUrl("sha256/abc")).thenReturn("http://minio/presigned");
+        InputStream body = new ByteArrayInputStream("data".getBytes());
+
+        AlbumImageResponse response = albumImageService.uploadImageStream(albumId, "my cover.png", "image/png", 4, body);
+
+        assertThat(response.fileName()).isEqualTo("my cover.png");
+        assertThat(response.url()).isEqualTo("http://minio/presigned");
+        verify(minioService).copyIfAbsent(startsWith("staging/"), eq("sha256/abc"));
+        verify(minioService).deleteFile(startsWith("staging/"));
+        verify(imageRenditionService).generateAsync(any(AlbumImage.class));
+    }
+
+    @Test
+    void uploadImageStream_shouldRejectDeclaredLengthOverTheLimitWithoutReading() {
+        when(albumRepository.findById(albumId)).thenReturn(Optional.of(album));
+        long declared = DataSize.ofMegabytes(2).toBytes();
+
+        assertThatThrownBy(() -> albumImageService.uploadImageStream(albumId, "a.jpg", "image/jpeg", declared, InputStream.nullInputStream()))
+                .isInstanceOf(PayloadTooLargeException.class)
+                .hasMessageContaining("maximum size of 1MB");
+        verify(minioService, never()).uploadStream(anyString(), any(), anyString());
+    }
+
+    @Test
+    void uploadImageStream_shouldAbortStreamsThatGrowPastTheLimit() {
+        when(albumRepository.findById(albumId)).thenReturn(Optional.of(album));
+        doAnswer(invocation -> {
+            InputStream stream = invocation.getArgument(1);
+            try {
+                stream.transferTo(OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                throw new InfrastructureException("Failed to upload file to MinIO: " + e.getMessage(), e);
+            }
+            return null;
+        }).when(minioService).uploadStream(anyString(), any(), anyString());
+        InputStream body = new ByteArrayInputStream(new byte[(int) DataSize.ofMegabytes(1).toBytes() + 1]);
+
+        assertThatThrownBy(() -> albumImageService.uploadImageStream(albumId, "a.jpg", "image/jpeg", -1, body))
+                .isInstanceOf(PayloadTooLargeException.class);
+        verify(imageReferenceService, never()).saveAll(anyList(), any());
+    }
+
+    @Test
+    void uploadImageStream_shouldRethrowStorageFailures() {
+        when(albumRepository.findById(albumId)).thenReturn(Optional.of(album));
+        when(minioService.uploadStream(anyString(), any(), anyString()))
+                .thenThrow(new InfrastructureException("Failed to upload file to MinIO", null));
+
+        assertThatThrownBy(() -> albumImageService.uploadImageStream(albumId, "a.jpg", "image/jpeg", 4,
+                new ByteArrayInputStream("data".getBytes())))
+                .isInstanceOf(InfrastructureException.class);
+    }
+
+    @Test
+    void uploadImageStream_shouldReleaseObjectAndStagingWhenSaveFails() {
+        when(albumRepository.findById(albumId)).thenReturn(Optional.of(album));
+        when(minioService.uploadStream(anyString(), any(), anyString())).thenReturn("sha256/abc");
+        when(imageReferenceService.saveAll(anyList(), any())).thenThrow(new IllegalStateException("db down"));
+
+        assertThatThrownBy(() -> albumImageService.uploadImageStream(albumId, "a.jpg", "image/jpeg", 4,
+                new ByteArrayInputStream("data".getBytes())))
+                .isInstanceOf(IllegalStateException.class);
+        verify(imageReferenceService).deleteIfUnreferenced("sha256/abc");
+        verify(minioService).deleteFile(startsWith("staging/"));
+    }
+
+    @Test
+    void uploadImageStream_shouldRejectUnsupportedContentType() {
+        when(albumRepository.findById(albumId)).thenReturn(Optional.of(album));
+
+        assertThatThrownBy(() -> albumImageService.uploadImageStream(albumId, "a.svg", "image/svg+xml", 4, InputStream.nullInputStream()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unsupported image content type");
+    }
+
+    @Test
+    void createUploadTicket_shouldSignPolicyForKeyUnderAlbum() {
+        when(albumRepository.existsById(albumId)).thenReturn(true);
+        when(minioService.getPresignedPostFormData(anyString(), eq("image/png"), eq(DataSize.ofMegabytes(10).toBytes()), any()))
+                .thenReturn(Map.of("policy", "abc"));
+        when(minioService.getBucketUrl()).thenReturn("http://minio:9000/album-images");
+
+        ImageUploadTicket ticket = albumImageService.createUploadTicket(albumId, new ImageUploadRequest("my cover.png", "image/png", 1024));
+
+        assertThat(ticket.objectKey()).startsWith(albumId + "/").endsWith("_my_cover.png");
+        assertThat(ticket.url()).isEqualTo("http://minio:9000/album-images");
+        assertThat(ticket.formData()).containsEntry("policy", "abc");
+        assertThat(ticket.expiresAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    void createUploadTicket_shouldRejectUnsupportedContentType() {
+        when(albumRepository.existsById(albumId)).thenReturn(true);
+
+        assertThatThrownBy(() -> albumImageService.createUploadTicket(albumId, new ImageUploadRequest("a.svg", "image/svg+xml", 10)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unsupported image content type");
+        verify(minioService, never()).getPresignedPostFormData(anyString(), anyString(), anyLong(), any());
+    }
+
+    @Test
+    void createUploadTicket_shouldRejectFilesOverTheSizeLimit() {
+        when(albumRepository.existsById(albumId)).thenReturn(true);
+        ImageUploadRequest request = new ImageUploadRequest("a.jpg", "image/jpeg", DataSize.ofMegabytes(11).toBytes());
+
+        assertThatThrownBy(() -> albumImageService.createUploadTicket(albumId, request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maximum size of 10MB");
+    }
+
+    @Test
+    void createUploadTicket_shouldThrowWhenAlbumNotFound() {
+        when(albumRepository.existsById(albumId)).thenReturn(false);
+
+        assertThatThrownBy(() -> albumImageService.createUploadTicket(albumId, new ImageUploadRequest("a.jpg", "image/jpeg", 10)))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void completeUpload_shouldRegisterStoredObjectAndQueueRenditions() {
+        String objectKey = albumId + "/" + UUID.randomUUID() + "_cover.jpg";
+        when(albumRepository.findById(albumId)).thenReturn(Optional.of(album));
+        when(albumImageRepository.findByObjectKey(objectKey)).thenReturn(Optional.empty());
+        when(minioService.statFile(objectKey)).thenReturn(new StoredObject(objectKey, "image/jpeg", 2048, "abc", Instant.now()));
+        when(albumImageRepository.save(any(AlbumImage.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(minioService.getPresignedUrl(objectKey)).thenReturn("http://minio/presigned");
+
+        AlbumImageResponse response = albumImageService.completeUpload(albumId, new ImageUploadCompletion(objectKey));
+
+        assertThat(response.fileName()).isEqualTo("cover.jpg");
+        assertThat(response.contentType()).isEqualTo("image/jpeg");
+        verify(imageRenditionService).generateAsync(any(AlbumImage.class));
+    }
+
+    @Test
+    void completeUpload_shouldReturnExistingImageOnRetry() {
+        String objectKey = albumId + "/" + UUID.randomUUID() + "_cover.jpg";
+        AlbumImage existing = new AlbumImage(UUID.randomUUID(), album, "cover.jpg", objectKey, "image/jpeg");
+        when(albumRepository.findById(albumId)).thenReturn(Optional.of(album));
+        when(albumImageRepository.findByObjectKey(objectKey)).thenReturn(Optional.of(existing));
+        when(minioService.getPresignedUrl(objectKey)).thenReturn("http://minio/presigned");
+
+        AlbumImageResponse response = albumImageService.completeUpload(albumId, new ImageUploadCompletion(objectKey));
+
+        assertThat(response.id()).isEqualTo(existing.getId());
+        verify(minioService, never()).statFile(anyString());
+        verify(albumImageRepository, never()).save(any());
+    }
+
+    @Test
+    void completeUpload_shouldReturnImageOfConcurrentCompletionWhenUniqueKeyIsTaken() {
+        String objectKey = albumId + "/" + UUID.randomUUID() + "_cover.jpg";
+        AlbumImage winner = new AlbumImage(UUID.randomUUID(), album, "cover.jpg", objectKey, "image/jpeg");
+        when(albumRepository.findById(albumId)).thenReturn(Optional.of(album));
+        when(albumImageRepository.findByObjectKey(objectKey)).thenReturn(Optional.empty(), Optional.of(winner));
+        when(minioService.statFile(objectKey)).thenReturn(new StoredObject(objectKey, "image/jpeg", 2048, "abc", Instant.now()));
+        when(albumImageRepository.save(any(AlbumImage.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint"));
+        when(minioService.getPresignedUrl(objectKey)).thenReturn("http://minio/presigned");
+
+        AlbumImageResponse response = albumImageService.completeUpload(albumId, new ImageUploadCompletion(objectKey));
+
+        assertThat(response.id()).isEqualTo(winner.getId());
+        verify(imageRenditionService, never()).generateAsync(any(AlbumImage.class));
+        verify(minioService, never()).deleteFile(anyString());
+    }
+
+    @Test
+    void completeUpload_shouldRejectKeysIssuedForAnotherAlbum() {
+        when(albumRepository.findById(albumId)).thenReturn(Optional.of(album));
+        ImageUploadCompletion completion = new ImageUploadCompletion(UUID.randomUUID() + "/" + UUID.randomUUID() + "_cover.jpg");
+
+        assertThatThrownBy(() -> albumImageService.completeUpload(albumId, completion))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("was not issued for album");
+        verify(minioService, never()).statFile(anyString());
+    }
+
+    @Test
+    void completeUpload_shouldDeleteObjectThatViolatesConstraints() {
+        String objectKey = albumId + "/" + UUID.randomUUID() + "_cover.html";
+        when(albumRepository.findById(albumId)).thenReturn(Optional.of(album));
+        when(albumImageRepository.findByObjectKey(objectKey)).thenReturn(Optional.empty());
+        when(minioService.statFile(objectKey)).thenReturn(new StoredObject(objectKey, "text/html", 20, "abc", Instant.now()));
+
+        assertThatThrownBy(() -> albumImageService.completeUpload(albumId, new ImageUploadCompletion(objectKey)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(minioService).deleteFile(objectKey);
+        verify(albumImageRepository, never()).save(any());
+    }
+
     @Test
     void getImagesByAlbumId_shouldReturnImages() {
         when(albumRepository.existsById(albumId)).thenReturn(true);
@@ -94,6 +445,25 @@ class AlbumImageServiceTest {
         assertThat(responses.get(0).fileName()).isEqualTo("test.jpg");
     }
 
+    @Test
+    void getImagesByAlbumId_shouldExposeUrlPerGeneratedRendition() {
+        when(albumRepository.existsById(albumId)).thenReturn(true);
+
+        AlbumImage image = new AlbumImage(UUID.randomUUID(), album, "test.jpg", "uuid_test.jpg", "image/jpeg");
+        ReflectionTestUtils.setField(image, "thumbnailObjectKey", "uuid_test.jpg.thumbnail.jpg");
+        ReflectionTestUtils.setField(image, "mediumObjectKey", "uuid_test.jpg.medium.jpg");
+        when(albumImageRepository.findByAlbumId(albumId)).thenReturn(List.of(image));
+        when(minioService.getPresignedUrl("uuid_test.jpg")).thenReturn("http://minio/original");
+        when(minioService.getPresignedUrl("uuid_test.jpg.thumbnail.jpg")).thenReturn("http://minio/thumbnail");
+        when(minioService.getPresignedUrl("uuid_test.jpg.medium.jpg")).thenReturn("http://minio/medium");
+
+        List<AlbumImageResponse> responses = albumImageService.getImagesByAlbumId(albumId);
+
+        assertThat(responses.get(0).url()).isEqualTo("http://minio/original");
+        assertThat(responses.get(0).renditionUrls())
+                .containsExactly(entry("thumbnail", "http://minio/thumbnail"), entry("medium", "http://minio/medium"));
+    }
+
     @Test
     void getImagesByAlbumId_shouldThrowWhenAlbumNotFound() {
         UUID invalidId = UUID.randomUUID();
@@ -105,15 +475,45 @@ class AlbumImageServiceTest {
     }
 
     @Test
-    void deleteImage_shouldDeleteFromMinioAndDb() {
+    void getImageContent_shouldReturnObjectMetadata() {
         UUID imageId = UUID.randomUUID();
         AlbumImage image = new AlbumImage(imageId, album, "test.jpg", "uuid_test.jpg", "image/jpeg");
+        StoredObject object = new StoredObject("uuid_test.jpg", "image/jpeg", 4, "abc", Instant.now());
+        when(albumImageRepository.findById(imageId)).thenReturn(Optional.of(image));
+        when(minioService.statFile("uuid_test.jpg")).thenReturn(object);
+
+        assertThat(albumImageService.getImageContent(imageId)).isEqualTo(object);
+    }
+
+    @Test
+    void getImageContent_shouldThrowWhenImageNotFound() {
+        UUID invalidId = UUID.randomUUID();
+        when(albumImageRepository.findById(invalidId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> albumImageService.getImageContent(invalidId))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Image not found");
+    }
+
+    @Test
+    void openImageContent_shouldReadRequestedRangeFromMinio() {
+        StoredObject object = new StoredObject("uuid_test.jpg", "image/jpeg", 4, "abc", Instant.now());
+        InputStream content = new ByteArrayInputStream("at".getBytes());
+        when(minioService.openFile("uuid_test.jpg", 1, 2)).thenReturn(content);
+
+        assertThat(albumImageService.openImageContent(object, 1, 2)).isSameAs(content);
+    }
+
+    @Test
+    void deleteImage_shouldReleaseImageReference() {
+        UUID imageId = UUID.randomUUID();
+        AlbumImage image = new AlbumImage(imageId, album, "test.jpg", "sha256/abc", "image/jpeg");
         when(albumImageRepository.findById(imageId)).thenReturn(Optional.of(image));
 
         albumImageService.deleteImage(imageId);
 
-        verify(minioService).deleteFile("uuid_test.jpg");
-        verify(albumImageRepository).delete(image);
+        verify(imageReferenceService).delete(image);
+        verify(minioService, never()).deleteFile(anyString());
     }
 
     @Test
@@ -125,4 +525,10 @@ class AlbumImageServiceTest {
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Image not found");
     }
+
+    private AlbumImageService serviceWithUploadExecutor(Executor uploadExecutor, Duration uploadTimeout) {
+        return new AlbumImageService(albumImageRepository, albumRepository, minioService, imageRenditionService,
+                imageReferenceService, uploadExecutor, uploadTimeout, DataSize.ofMegabytes(10), Duration.ofMinutes(15),
+                DataSize.ofMegabytes(1));
+    }
 }
@@ -1,19 +1,24 @@
 package com.shedyhuseinsinkoc035209.service;
 
+import com.shedyhuseinsinkoc035209.dto.AlbumArtistName;
 import com.shedyhuseinsinkoc035209.dto.AlbumRequest;
 import com.shedyhuseinsinkoc035209.dto.AlbumResponse;
+import com.shedyhuseinsinkoc035209.dto.AlbumSummary;
+import com.shedyhuseinsinkoc035209.dto.CursorPage;
 import com.shedyhuseinsinkoc035209.entity.Album;
 import com.shedyhuseinsinkoc035209.entity.Artist;
 import com.shedyhuseinsinkoc035209.entity.ArtistType;
 import com.shedyhuseinsinkoc035209.exception.ResourceNotFoundException;
 import com.shedyhuseinsinkoc035209.repository.AlbumRepository;
 import com.shedyhuseinsinkoc035209.repository.ArtistRepository;
+import com.shedyhuseinsinkoc035209.util.CursorCodec;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -31,6 +36,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -50,6 +56,7 @@ class AlbumServiceTest {
     private AlbumService albumService;
 
     private Album album;
+    private AlbumSummary summary;
     private Artist artist;
     private UUID albumId;
     private UUID artistId;
@@ -65,17 +72,21 @@ class AlbumServiceTest {
         album.getArtists().add(artist);
         ReflectionTestUtils.setField(album, "createdAt", LocalDateTime.now());
         ReflectionTestUtils.setField(album, "updatedAt", LocalDateTime.now());
+
+        summary = new AlbumSummary(albumId, "Test Album", 2023, album.getCreatedAt(), album.getUpdatedAt());
     }
 
     @Test
     void create_shouldReturnAlbumResponseAndSendWebSocket() {
         AlbumRequest request = new AlbumRequest("Test Album", 2023, Set.of(artistId));
-        when(artistRepository.findById(artistId)).thenReturn(Optional.of(artist));
+        when(artistRepository.findAllById(Set.of(artistId))).thenReturn(List.of(artist));
         when(albumRepository.save(any(Album.class))).thenReturn(album);
 
         AlbumResponse response = albumService.create(request);
 
         assertThat(response.title()).isEqualTo("Test Album");
+        assertThat(response.artistNames()).containsExactly("Test Artist");
+        verify(albumRepository).linkArtists(albumId, List.of(artistId));
         verify(messagingTemplate).convertAndSend(eq("/topic/albums"), any(AlbumResponse.class));
     }
 
@@ -83,27 +94,43 @@ class AlbumServiceTest {
     void create_shouldThrowWhenArtistNotFound() {
         UUID invalidId = UUID.randomUUID();
         AlbumRequest request = new AlbumRequest("Test Album", 2023, Set.of(invalidId));
-        when(artistRepository.findById(invalidId)).thenReturn(Optional.empty());
+        when(artistRepository.findAllById(Set.of(invalidId))).thenReturn(List.of());
 
         assertThatThrownBy(() -> albumService.create(request))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessageContaining("Artist not found");
     }
 
+    @Test
+    void create_shouldReportEveryMissingArtistInOneException() {
+        UUID missingA = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+        UUID missingB = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+        AlbumRequest request = new AlbumRequest("Test Album", 2023, Set.of(artistId, missingA, missingB));
+        when(artistRepository.findAllById(request.artistIds())).thenReturn(List.of(artist));
+
+        assertThatThrownBy(() -> albumService.create(request))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Artist not found with ids: [" + missingA + ", " + missingB + "]");
+        verify(artistRepository).findAllById(request.artistIds());
+    }
+
     @Test
     void findById_shouldReturnAlbumResponse() {
-        when(albumRepository.findById(albumId)).thenReturn(Optional.of(album));
+        when(albumRepository.findSummaryById(albumId)).thenReturn(Optional.of(summary));
+        when(albumRepository.findArtistNamesByAlbumIds(List.of(albumId)))
+                .thenReturn(List.of(new AlbumArtistName(albumId, "Test Artist")));
 
         AlbumResponse response = albumService.findById(albumId);
 
         assertThat(response.id()).isEqualTo(albumId);
         assertThat(response.title()).isEqualTo("Test Album");
+        assertThat(response.artistNames()).containsExactly("Test Artist");
     }
 
     @Test
     void findById_shouldThrowWhenNotFound() {
         UUID id = UUID.randomUUID();
-        when(albumRepository.findById(id)).thenReturn(Optional.empty());
+        when(albumRepository.findSummaryById(id)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> albumService.findById(id))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -113,19 +140,58 @@ class AlbumServiceTest {
     @Test
     void findAll_shouldReturnPageOfAlbums() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Album> page = new PageImpl<>(List.of(album));
-        when(albumRepository.findAll(pageable)).thenReturn(page);
+        Page<AlbumSummary> page = new PageImpl<>(List.of(summary));
+        when(albumRepository.findAllSummaries(pageable)).thenReturn(page);
+        when(albumRepository.findArtistNamesByAlbumIds(List.of(albumId))).thenReturn(List.of(
+                new AlbumArtistName(albumId, "Zeta"), new AlbumArtistName(albumId, "Alpha")));
 
         Page<AlbumResponse> response = albumService.findAll(pageable);
 
         assertThat(response.getContent()).hasSize(1);
+        assertThat(response.getContent().get(0).artistNames()).containsExactly("Alpha", "Zeta");
+    }
+
+    @Test
+    void findAll_shouldSkipArtistQueryForEmptyPage() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(albumRepository.findAllSummaries(pageable)).thenReturn(Page.empty(pageable));
+
+        Page<AlbumResponse> response = albumService.findAll(pageable);
+
+        assertThat(response.getContent()).isEmpty();
+        verify(albumRepository, never()).findArtistNamesByAlbumIds(any());
+    }
+
+    @Test
+    void findAllByCursor_shouldReturnAlbumsWithArtistNamesAndNextCursor() {
+        AlbumSummary next = new AlbumSummary(UUID.randomUUID(), "Zeta Album", 2024, null, null);
+        when(albumRepository.findSummariesByTitleKeysetAfter("Alpha", artistId, Limit.of(2))).thenReturn(List.of(summary, next));
+        when(albumRepository.findArtistNamesByAlbumIds(List.of(albumId)))
+                .thenReturn(List.of(new AlbumArtistName(albumId, "Test Artist")));
+
+        CursorPage<AlbumResponse> page = albumService.findAllByCursor(CursorCodec.encode("Alpha", artistId), 1);
+
+        assertThat(page.content()).extracting(AlbumResponse::title).containsExactly("Test Album");
+        assertThat(page.content().get(0).artistNames()).containsExactly("Test Artist");
+        assertThat(page.nextCursor()).isEqualTo(CursorCodec.encode("Test Album", albumId));
+    }
+
+    @Test
+    void findAllByCursor_shouldSkipArtistQueryWhenNothingLeft() {
+        when(albumRepository.findFirstSummariesByTitleKeyset(Limit.of(21))).thenReturn(List.of());
+
+        CursorPage<AlbumResponse> page = albumService.findAllByCursor(null, 20);
+
+        assertThat(page.content()).isEmpty();
+        assertThat(page.nextCursor()).isNull();
+        verify(albumRepository, never()).findArtistNamesByAlbumIds(any());
     }
 
     @Test
     void findByArtistType_shouldReturnFilteredAlbums() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Album> page = new PageImpl<>(List.of(album));
-        when(albumRepository.findByArtistType(ArtistType.SOLO, pageable)).thenReturn(page);
+        Page<AlbumSummary> page = new PageImpl<>(List.of(summary));
+        when(albumRepository.findSummariesByArtistType(ArtistType.SOLO, pageable)).thenReturn(page);
 
         Page<AlbumResponse> response = albumService.findByArtistType(ArtistType.SOLO, pageable);
 
@@ -135,19 +201,41 @@ class AlbumServiceTest {
     @Test
     void findByArtistName_withAscOrder_shouldReturnSortedAlbums() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Album> page = new PageImpl<>(List.of(album));
-        when(albumRepository.findByArtistNameContaining(eq("Test"), any(Pageable.class))).thenReturn(page);
+        Page<AlbumSummary> page = new PageImpl<>(List.of(summary));
+        when(albumRepository.findSummariesByArtistNameContaining(eq("Test"), any(Pageable.class))).thenReturn(page);
 
         Page<AlbumResponse> response = albumService.findByArtistName("Test", "asc", pageable);
 
         assertThat(response.getContent()).hasSize(1);
     }
 
+    @Test
+    void findByArtistName_withRelevanceOrder_shouldUseSimilarityQueryWithoutSort() {
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<AlbumSummary> page = new PageImpl<>(List.of(summary));
+        when(albumRepository.findSummariesByArtistNameContainingOrderByRelevance("Test", "Test", PageRequest.of(0, 10))).thenReturn(page);
+
+        Page<AlbumResponse> response = albumService.findByArtistName("Test", "relevance", pageable);
+
+        assertThat(response.getContent()).hasSize(1);
+    }
+
+    @Test
+    void findByArtistName_shouldEscapeLikeWildcardsButRankByRawName() {
+        Page<AlbumSummary> page = new PageImpl<>(List.of(summary));
+        when(albumRepository.findSummariesByArtistNameContainingOrderByRelevance("50\\%\\_", "50%_", PageRequest.of(0, 10)))
+                .thenReturn(page);
+
+        Page<AlbumResponse> response = albumService.findByArtistName("50%_", "relevance", PageRequest.of(0, 10));
+
+        assertThat(response.getContent()).hasSize(1);
+    }
+
     @Test
     void findByArtistName_withDescOrder_shouldReturnSortedAlbums() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Album> page = new PageImpl<>(List.of(album));
-        when(albumRepository.findByArtistNameContaining(eq("Test"), any(Pageable.class))).thenReturn(page);
+        Page<AlbumSummary> page = new PageImpl<>(List.of(summary));
+        when(albumRepository.findSummariesByArtistNameContaining(eq("Test"), any(Pageable.class))).thenReturn(page);
 
         Page<AlbumResponse> response = albumService.findByArtistName("Test", "desc", pageable);
 
@@ -158,7 +246,7 @@ class AlbumServiceTest {
     void update_shouldThrowWhenAlbumNotFound() {
         UUID id = UUID.randomUUID();
         AlbumRequest request = new AlbumRequest("Updated", 2024, Set.of(artistId));
-        when(albumRepository.findById(id)).thenReturn(Optional.empty());
+        when(albumRepository.findByIdWithArtists(id)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> albumService.update(id, request))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -178,14 +266,29 @@ class AlbumServiceTest {
     @Test
     void update_shouldReturnUpdatedAlbum() {
         AlbumRequest request = new AlbumRequest("Updated Album", 2024, Set.of(artistId));
-        when(albumRepository.findById(albumId)).thenReturn(Optional.of(album));
-        when(artistRepository.findById(artistId)).thenReturn(Optional.of(artist));
+        when(albumRepository.findByIdWithArtists(albumId)).thenReturn(Optional.of(album));
+        when(artistRepository.findAllById(Set.of(artistId))).thenReturn(List.of(artist));
         when(albumRepository.save(any(Album.class))).thenReturn(album);
 
         AlbumResponse response = albumService.update(albumId, request);
 
         assertThat(response).isNotNull();
         verify(albumRepository).save(any(Album.class));
+        verify(albumRepository).unlinkArtists(albumId);
+        verify(albumRepository).linkArtists(albumId, List.of(artistId));
+    }
+
+    @Test
+    void update_shouldOnlyUnlinkArtistsWhenNoneRequested() {
+        AlbumRequest request = new AlbumRequest("Updated Album", 2024, Set.of());
+        when(albumRepository.findByIdWithArtists(albumId)).thenReturn(Optional.of(album));
+        when(albumRepository.save(any(Album.class))).thenReturn(album);
+
+        AlbumResponse response = albumService.update(albumId, request);
+
+        assertThat(response.artistNames()).isEmpty();
+        verify(albumRepository).unlinkArtists(albumId);
+        verify(albumRepository, never()).linkArtists(any(), any());
     }
 
     @Test
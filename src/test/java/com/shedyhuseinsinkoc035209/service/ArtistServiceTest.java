@@ -2,16 +2,22 @@ package com.shedyhuseinsinkoc035209.service;
 
 import com.shedyhuseinsinkoc035209.dto.ArtistRequest;
 import com.shedyhuseinsinkoc035209.dto.ArtistResponse;
+import com.shedyhuseinsinkoc035209.dto.ArtistSuggestion;
+import com.shedyhuseinsinkoc035209.dto.CursorPage;
 import com.shedyhuseinsinkoc035209.entity.Artist;
 import com.shedyhuseinsinkoc035209.entity.ArtistType;
+import com.shedyhuseinsinkoc035209.event.ArtistChangedEvent;
 import com.shedyhuseinsinkoc035209.exception.ResourceNotFoundException;
 import com.shedyhuseinsinkoc035209.repository.ArtistRepository;
+import com.shedyhuseinsinkoc035209.util.CursorCodec;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -26,6 +32,7 @@ import java.util.UUID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -35,6 +42,12 @@ class ArtistServiceTest {
     @Mock
     private ArtistRepository artistRepository;
 
+    @Mock
+    private ArtistSuggestionIndex suggestionIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ArtistService artistService;
 
@@ -59,11 +72,23 @@ class ArtistServiceTest {
         assertThat(response.name()).isEqualTo("Test Artist");
         assertThat(response.type()).isEqualTo(ArtistType.SOLO);
         verify(artistRepository).save(any(Artist.class));
+        verify(eventPublisher).publishEvent(ArtistChangedEvent.saved(
+                new ArtistSuggestion(artistId, "Test Artist", ArtistType.SOLO)));
+    }
+
+    @Test
+    void suggest_shouldCapLimit() {
+        ArtistSuggestion suggestion = new ArtistSuggestion(artistId, "Test Artist", ArtistType.SOLO);
+        when(suggestionIndex.suggest("te", ArtistService.MAX_SUGGESTIONS)).thenReturn(List.of(suggestion));
+
+        List<ArtistSuggestion> suggestions = artistService.suggest("te", 1000);
+
+        assertThat(suggestions).containsExactly(suggestion);
     }
 
     @Test
     void findById_shouldReturnArtistResponse() {
-        when(artistRepository.findById(artistId)).thenReturn(Optional.of(artist));
+        when(artistRepository.findResponseById(artistId)).thenReturn(Optional.of(ArtistResponse.fromEntity(artist)));
 
         ArtistResponse response = artistService.findById(artistId);
 
@@ -74,7 +99,7 @@ class ArtistServiceTest {
     @Test
     void findById_shouldThrowWhenNotFound() {
         UUID id = UUID.randomUUID();
-        when(artistRepository.findById(id)).thenReturn(Optional.empty());
+        when(artistRepository.findResponseById(id)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> artistService.findById(id))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -84,8 +109,8 @@ class ArtistServiceTest {
     @Test
     void findAll_shouldReturnPageOfArtists() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Artist> page = new PageImpl<>(List.of(artist));
-        when(artistRepository.findAll(any(Pageable.class))).thenReturn(page);
+        Page<ArtistResponse> page = new PageImpl<>(List.of(ArtistResponse.fromEntity(artist)));
+        when(artistRepository.findAllResponses(any(Pageable.class))).thenReturn(page);
 
         Page<ArtistResponse> response = artistService.findAll(pageable);
 
@@ -93,22 +118,76 @@ class ArtistServiceTest {
         assertThat(response.getContent().get(0).name()).isEqualTo("Test Artist");
     }
 
+    @Test
+    void findAllByCursor_shouldFetchOneExtraRowAndReturnNextCursor() {
+        ArtistResponse first = new ArtistResponse(UUID.randomUUID(), "Alpha", ArtistType.SOLO, null, null);
+        ArtistResponse second = new ArtistResponse(UUID.randomUUID(), "Beta", ArtistType.BAND, null, null);
+        when(artistRepository.findFirstResponsesByNameKeyset(Limit.of(2))).thenReturn(List.of(first, second));
+
+        CursorPage<ArtistResponse> page = artistService.findAllByCursor(null, 1);
+
+        assertThat(page.content()).containsExactly(first);
+        assertThat(page.nextCursor()).isEqualTo(CursorCodec.encode("Alpha", first.id()));
+    }
+
+    @Test
+    void findAllByCursor_shouldContinueAfterCursorAndEndWithoutNextCursor() {
+        UUID lastId = UUID.randomUUID();
+        ArtistResponse next = new ArtistResponse(UUID.randomUUID(), "Beta", ArtistType.BAND, null, null);
+        when(artistRepository.findResponsesByNameKeysetAfter("Alpha", lastId, Limit.of(21))).thenReturn(List.of(next));
+
+        CursorPage<ArtistResponse> page = artistService.findAllByCursor(CursorCodec.encode("Alpha", lastId), 20);
+
+        assertThat(page.content()).containsExactly(next);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void findAllByCursor_shouldCapPageSize() {
+        when(artistRepository.findFirstResponsesByNameKeyset(Limit.of(CursorPage.MAX_SIZE + 1))).thenReturn(List.of());
+
+        CursorPage<ArtistResponse> page = artistService.findAllByCursor(null, 10_000);
+
+        assertThat(page.content()).isEmpty();
+    }
+
     @Test
     void findByName_withAscOrder_shouldReturnFilteredArtists() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Artist> page = new PageImpl<>(List.of(artist));
-        when(artistRepository.findByNameContainingIgnoreCase(any(String.class), any(Pageable.class))).thenReturn(page);
+        Page<ArtistResponse> page = new PageImpl<>(List.of(ArtistResponse.fromEntity(artist)));
+        when(artistRepository.findResponsesByNameContaining(any(String.class), any(Pageable.class))).thenReturn(page);
 
         Page<ArtistResponse> response = artistService.findByName("Test", "asc", pageable);
 
         assertThat(response.getContent()).hasSize(1);
     }
 
+    @Test
+    void findByName_withRelevanceOrder_shouldUseSimilarityQueryWithoutSort() {
+        Pageable pageable = PageRequest.of(1, 10);
+        Page<ArtistResponse> page = new PageImpl<>(List.of(ArtistResponse.fromEntity(artist)));
+        when(artistRepository.findResponsesByNameContainingOrderByRelevance("Test", "Test", PageRequest.of(1, 10))).thenReturn(page);
+
+        Page<ArtistResponse> response = artistService.findByName("Test", "relevance", pageable);
+
+        assertThat(response.getContent()).hasSize(1);
+    }
+
+    @Test
+    void findByName_shouldEscapeLikeWildcards() {
+        Page<ArtistResponse> page = new PageImpl<>(List.of(ArtistResponse.fromEntity(artist)));
+        when(artistRepository.findResponsesByNameContaining(eq("a\\_b\\%\\\\"), any(Pageable.class))).thenReturn(page);
+
+        Page<ArtistResponse> response = artistService.findByName("a_b%\\", "asc", PageRequest.of(0, 10));
+
+        assertThat(response.getContent()).hasSize(1);
+    }
+
     @Test
     void findByName_withDescOrder_shouldReturnFilteredArtists() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Artist> page = new PageImpl<>(List.of(artist));
-        when(artistRepository.findByNameContainingIgnoreCase(any(String.class), any(Pageable.class))).thenReturn(page);
+        Page<ArtistResponse> page = new PageImpl<>(List.of(ArtistResponse.fromEntity(artist)));
+        when(artistRepository.findResponsesByNameContaining(any(String.class), any(Pageable.class))).thenReturn(page);
 
         Page<ArtistResponse> response = artistService.findByName("Test", "desc", pageable);
 
@@ -118,8 +197,8 @@ class ArtistServiceTest {
     @Test
     void findByType_shouldReturnFilteredArtists() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Artist> page = new PageImpl<>(List.of(artist));
-        when(artistRepository.findByType(ArtistType.SOLO, pageable)).thenReturn(page);
+        Page<ArtistResponse> page = new PageImpl<>(List.of(ArtistResponse.fromEntity(artist)));
+        when(artistRepository.findResponsesByType(ArtistType.SOLO, pageable)).thenReturn(page);
 
         Page<ArtistResponse> response = artistService.findByType(ArtistType.SOLO, pageable);
 
@@ -147,6 +226,8 @@ class ArtistServiceTest {
 
         assertThat(response).isNotNull();
         verify(artistRepository).save(any(Artist.class));
+        verify(eventPublisher).publishEvent(ArtistChangedEvent.saved(
+                new ArtistSuggestion(artistId, "Updated Artist", ArtistType.BAND)));
     }
 
     @Test
@@ -156,6 +237,7 @@ class ArtistServiceTest {
         artistService.delete(artistId);
 
         verify(artistRepository).deleteById(artistId);
+        verify(eventPublisher).publishEvent(ArtistChangedEvent.deleted(artistId));
     }
 
     @Test
@@ -0,0 +1,103 @@
+package com.shedyhuseinsinkoc035209.service;
+
+import com.shedyhuseinsinkoc035209.dto.ArtistSuggestion;
+import com.shedyhuseinsinkoc035209.entity.ArtistType;
+import com.shedyhuseinsinkoc035209.event.ArtistChangedEvent;
+import com.shedyhuseinsinkoc035209.repository.ArtistRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ArtistSuggestionIndexTest {
+
+    @Mock
+    private ArtistRepository artistRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ArtistSuggestionIndex index;
+
+    private final ArtistSuggestion serj = new ArtistSuggestion(UUID.randomUUID(), "Serj Tankian", ArtistType.SOLO);
+    private final ArtistSuggestion mike = new ArtistSuggestion(UUID.randomUUID(), "Mike Shinoda", ArtistType.SOLO);
+    private final ArtistSuggestion michel = new ArtistSuggestion(UUID.randomUUID(), "Michel Teló", ArtistType.SOLO);
+    private final ArtistSuggestion guns = new ArtistSuggestion(UUID.randomUUID(), "Guns N' Roses", ArtistType.BAND);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        index = new ArtistSuggestionIndex(artistRepository, meterRegistry);
+        when(artistRepository.findAllSuggestions()).thenReturn(List.of(serj, mike, michel, guns));
+        index.rebuild();
+    }
+
+    @Test
+    void suggest_shouldMatchNamePrefixCaseInsensitively() {
+        assertThat(index.suggest("MI", 10)).containsExactly(michel, mike);
+    }
+
+    @Test
+    void suggest_shouldMatchPrefixOfLaterWordsIgnoringAccents() {
+        assertThat(index.suggest("telo", 10)).containsExactly(michel);
+        assertThat(index.suggest("ros", 10)).containsExactly(guns);
+    }
+
+    @Test
+    void suggest_shouldRankNamePrefixBeforeWordPrefix() {
+        ArtistSuggestion sergio = new ArtistSuggestion(UUID.randomUUID(), "Anna Serra", ArtistType.SOLO);
+        index.onArtistChanged(ArtistChangedEvent.saved(sergio));
+
+        assertThat(index.suggest("ser", 10)).containsExactly(serj, sergio);
+    }
+
+    @Test
+    void suggest_shouldRespectLimit() {
+        assertThat(index.suggest("m", 1)).containsExactly(michel);
+    }
+
+    @Test
+    void suggest_shouldReturnEmptyForBlankQuery() {
+        assertThat(index.suggest("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void onArtistChanged_shouldReplaceOldNameOnUpdate() {
+        ArtistSuggestion renamed = new ArtistSuggestion(mike.id(), "Fort Minor", ArtistType.BAND);
+
+        index.onArtistChanged(ArtistChangedEvent.saved(renamed));
+
+        assertThat(index.suggest("shinoda", 10)).isEmpty();
+        assertThat(index.suggest("fort", 10)).containsExactly(renamed);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void onArtistChanged_shouldRemoveDeletedArtist() {
+        index.onArtistChanged(ArtistChangedEvent.deleted(guns.id()));
+
+        assertThat(index.suggest("guns", 10)).isEmpty();
+        assertThat(index.suggest("roses", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void gauges_shouldReportEntriesAndReleaseMemoryOnDelete() {
+        double bytesBefore = meterRegistry.get("artists.suggestion.index.memory").gauge().value();
+
+        assertThat(meterRegistry.get("artists.suggestion.index.entries").gauge().value()).isEqualTo(9.0);
+        assertThat(bytesBefore).isPositive();
+
+        List.of(serj, mike, michel, guns).forEach(artist -> index.onArtistChanged(ArtistChangedEvent.deleted(artist.id())));
+
+        assertThat(meterRegistry.get("artists.suggestion.index.entries").gauge().value()).isZero();
+        assertThat(meterRegistry.get("artists.suggestion.index.memory").gauge().value()).isZero();
+    }
+}
@@ -4,6 +4,7 @@ import com.shedyhuseinsinkoc035209.dto.LoginRequest;
 import com.shedyhuseinsinkoc035209.dto.LoginResponse;
 import com.shedyhuseinsinkoc035209.dto.RefreshRequest;
 import com.shedyhuseinsinkoc035209.util.JwtUtil;
+import com.shedyhuseinsinkoc035209.util.VerifiedToken;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -13,10 +14,17 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -26,6 +34,9 @@ class AuthServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
     @Mock
     private JwtUtil jwtUtil;
 
@@ -37,9 +48,10 @@ class AuthServiceTest {
         LoginRequest request = new LoginRequest("admin", "admin123");
         Authentication authentication = mock(Authentication.class);
         when(authentication.getName()).thenReturn("admin");
+        doReturn(List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))).when(authentication).getAuthorities();
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
-        when(jwtUtil.generateToken("admin")).thenReturn("access-token");
+        when(jwtUtil.generateToken("admin", "ADMIN")).thenReturn("access-token");
         when(jwtUtil.generateRefreshToken("admin")).thenReturn("refresh-token");
         when(jwtUtil.getExpiration()).thenReturn(3600000L);
 
@@ -64,10 +76,10 @@ class AuthServiceTest {
     @Test
     void refresh_shouldReturnNewAccessToken() {
         RefreshRequest request = new RefreshRequest("valid-refresh-token");
-        when(jwtUtil.validateToken("valid-refresh-token")).thenReturn(true);
-        when(jwtUtil.isRefreshToken("valid-refresh-token")).thenReturn(true);
-        when(jwtUtil.extractUsername("valid-refresh-token")).thenReturn("admin");
-        when(jwtUtil.generateToken("admin")).thenReturn("new-access-token");
+        when(jwtUtil.verify("valid-refresh-token")).thenReturn(Optional.of(verifiedToken("admin", "refresh")));
+        when(userDetailsService.loadUserByUsername("admin"))
+                .thenReturn(new User("admin", "password", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        when(jwtUtil.generateToken("admin", "USER")).thenReturn("new-access-token");
         when(jwtUtil.getExpiration()).thenReturn(3600000L);
 
         LoginResponse response = authService.refresh(request);
@@ -79,7 +91,7 @@ class AuthServiceTest {
     @Test
     void refresh_shouldThrowOnInvalidRefreshToken() {
         RefreshRequest request = new RefreshRequest("invalid-token");
-        when(jwtUtil.validateToken("invalid-token")).thenReturn(false);
+        when(jwtUtil.verify("invalid-token")).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> authService.refresh(request))
                 .isInstanceOf(BadCredentialsException.class)
@@ -89,11 +101,14 @@ class AuthServiceTest {
     @Test
     void refresh_shouldThrowWhenTokenIsNotRefreshType() {
         RefreshRequest request = new RefreshRequest("access-token-used-as-refresh");
-        when(jwtUtil.validateToken("access-token-used-as-refresh")).thenReturn(true);
-        when(jwtUtil.isRefreshToken("access-token-used-as-refresh")).thenReturn(false);
+        when(jwtUtil.verify("access-token-used-as-refresh")).thenReturn(Optional.of(verifiedToken("admin", "access")));
 
         assertThatThrownBy(() -> authService.refresh(request))
                 .isInstanceOf(BadCredentialsException.class)
                 .hasMessageContaining("Token is not a refresh token");
     }
+
+    private VerifiedToken verifiedToken(String subject, String type) {
+        return new VerifiedToken(subject, type, null, Instant.now(), Instant.now().plusSeconds(300));
+    }
 }
@@ -2,20 +2,25 @@ package com.shedyhuseinsinkoc035209.service;
 
 import com.shedyhuseinsinkoc035209.entity.Role;
 import com.shedyhuseinsinkoc035209.entity.User;
+import com.shedyhuseinsinkoc035209.event.UserChangedEvent;
 import com.shedyhuseinsinkoc035209.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.time.Duration;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,9 +29,15 @@ class CustomUserDetailsServiceTest {
     @Mock
     private UserRepository userRepository;
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
     private CustomUserDetailsService customUserDetailsService;
 
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        customUserDetailsService = new CustomUserDetailsService(userRepository, meterRegistry, Duration.ofMinutes(5), 100);
+    }
+
     @Test
     void loadUserByUsername_shouldReturnUserDetails() {
         User user = new User(UUID.randomUUID(), "admin", "$2a$10$encodedpassword", Role.ADMIN);
@@ -57,4 +68,69 @@ class CustomUserDetailsServiceTest {
 
         assertThat(userDetails.getAuthorities().iterator().next().getAuthority()).isEqualTo("ROLE_USER");
     }
+
+    @Test
+    void loadUserByUsername_shouldServeRepeatedLookupsFromCache() {
+        User user = new User(UUID.randomUUID(), "admin", "$2a$10$encodedpassword", Role.ADMIN);
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(user));
+
+        customUserDetailsService.loadUserByUsername("admin");
+        customUserDetailsService.loadUserByUsername("admin");
+
+        verify(userRepository, times(1)).findByUsername("admin");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", CustomUserDetailsService.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void loadUserByUsername_shouldReturnIndependentInstances() {
+        User user = new User(UUID.randomUUID(), "admin", "$2a$10$encodedpassword", Role.ADMIN);
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(user));
+
+        UserDetails first = customUserDetailsService.loadUserByUsername("admin");
+        ((org.springframework.security.core.userdetails.User) first).eraseCredentials();
+        UserDetails second = customUserDetailsService.loadUserByUsername("admin");
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getPassword()).isEqualTo("$2a$10$encodedpassword");
+    }
+
+    @Test
+    void loadUserByUsername_shouldNotCacheMissingUsers() {
+        when(userRepository.findByUsername("unknown")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> customUserDetailsService.loadUserByUsername("unknown"))
+                .isInstanceOf(UsernameNotFoundException.class);
+        assertThatThrownBy(() -> customUserDetailsService.loadUserByUsername("unknown"))
+                .isInstanceOf(UsernameNotFoundException.class);
+
+        verify(userRepository, times(2)).findByUsername("unknown");
+    }
+
+    @Test
+    void onUserChanged_shouldEvictCachedUser() {
+        User before = new User(UUID.randomUUID(), "admin", "$2a$10$encodedpassword", Role.ADMIN);
+        User after = new User(before.getId(), "admin", "$2a$10$encodedpassword", Role.USER);
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(before), Optional.of(after));
+
+        customUserDetailsService.loadUserByUsername("admin");
+        customUserDetailsService.onUserChanged(new UserChangedEvent("admin", "admin"));
+        UserDetails reloaded = customUserDetailsService.loadUserByUsername("admin");
+
+        assertThat(reloaded.getAuthorities().iterator().next().getAuthority()).isEqualTo("ROLE_USER");
+        verify(userRepository, times(2)).findByUsername("admin");
+    }
+
+    @Test
+    void onUserChanged_shouldEvictPreviousUsernameAfterRename() {
+        User user = new User(UUID.randomUUID(), "admin", "$2a$10$encodedpassword", Role.ADMIN);
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(user), Optional.empty());
+
+        customUserDetailsService.loadUserByUsername("admin");
+        customUserDetailsService.onUserChanged(new UserChangedEvent("admin", "root"));
+
+        assertThatThrownBy(() -> customUserDetailsService.loadUserByUsername("admin"))
+                .isInstanceOf(UsernameNotFoundException.class);
+        verify(userRepository, times(2)).findByUsername("admin");
+    }
 }
@@ -0,0 +1,148 @@
+package com.shedyhuseinsinkoc035209.service;
+
+import com.shedyhuseinsinkoc035209.entity.AlbumImage;
+import com.shedyhuseinsinkoc035209.repository.AlbumImageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ImageReferenceServiceTest {
+
+    @Mock
+    private AlbumImageRepository albumImageRepository;
+
+    @Mock
+    private MinioService minioService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ImageReferenceService imageReferenceService;
+
+    private AlbumImage image;
+
+    @BeforeEach
+    void setUp() {
+        image = new AlbumImage(UUID.randomUUID(), null, "cover.png", "sha256/abc", "image/png");
+    }
+
+    @Test
+    void saveAll_shouldLockEachKeyOnceInOrderBeforeSaving() {
+        AlbumImage sameContent = new AlbumImage(UUID.randomUUID(), null, "copy.png", "sha256/abc", "image/png");
+        AlbumImage other = new AlbumImage(UUID.randomUUID(), null, "back.png", "sha256/123", "image/png");
+        List<AlbumImage> images = List.of(image, sameContent, other);
+        when(minioService.exists(anyString())).thenReturn(true);
+        when(albumImageRepository.saveAll(images)).thenReturn(images);
+        List<String> restored = new ArrayList<>();
+
+        assertThat(imageReferenceService.saveAll(images, restored::add)).isEqualTo(images);
+
+        InOrder inOrder = inOrder(albumImageRepository);
+        inOrder.verify(albumImageRepository).lockObjectKey("sha256/123");
+        inOrder.verify(albumImageRepository).lockObjectKey("sha256/abc");
+        inOrder.verify(albumImageRepository).saveAll(images);
+        assertThat(restored).isEmpty();
+    }
+
+    @Test
+    void saveAll_shouldRestoreObjectsRemovedSinceTheUpload() {
+        when(minioService.exists("sha256/abc")).thenReturn(false);
+        when(albumImageRepository.saveAll(List.of(image))).thenReturn(List.of(image));
+        List<String> restored = new ArrayList<>();
+
+        imageReferenceService.saveAll(List.of(image), restored::add);
+
+        assertThat(restored).containsExactly("sha256/abc");
+    }
+
+    @Test
+    void delete_shouldKeepObjectStillUsedByAnotherImage() {
+        when(albumImageRepository.countByObjectKey("sha256/abc")).thenReturn(1L);
+
+        imageReferenceService.delete(image);
+
+        InOrder inOrder = inOrder(albumImageRepository);
+        inOrder.verify(albumImageRepository).lockObjectKey("sha256/abc");
+        inOrder.verify(albumImageRepository).delete(image);
+        inOrder.verify(albumImageRepository).flush();
+        inOrder.verify(albumImageRepository).countByObjectKey("sha256/abc");
+        verify(minioService, never()).deleteFile(anyString());
+    }
+
+    @Test
+    void delete_shouldRemoveObjectAndRenditionsWithTheLastReferenceAfterCommit() {
+        when(albumImageRepository.countByObjectKey("sha256/abc")).thenReturn(0L);
+
+        inTransaction(() -> {
+            imageReferenceService.delete(image);
+            verify(minioService, never()).deleteFile(anyString());
+        }, TransactionSynchronization::afterCommit);
+
+        verify(minioService).deleteFile("sha256/abc");
+        verify(minioService).deleteFile("sha256/abc.thumbnail.jpg");
+        verify(minioService).deleteFile("sha256/abc.medium.jpg");
+    }
+
+    @Test
+    void delete_shouldLeaveObjectInPlaceWhenTransactionRollsBack() {
+        when(albumImageRepository.countByObjectKey("sha256/abc")).thenReturn(0L);
+
+        inTransaction(() -> imageReferenceService.delete(image),
+                synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(minioService, never()).deleteFile(anyString());
+    }
+
+    @Test
+    void delete_shouldKeepObjectReusedBetweenCommitAndRemoval() {
+        when(albumImageRepository.countByObjectKey("sha256/abc")).thenReturn(0L, 1L);
+
+        inTransaction(() -> imageReferenceService.delete(image), TransactionSynchronization::afterCommit);
+
+        verify(albumImageRepository, times(2)).lockObjectKey("sha256/abc");
+        verify(minioService, never()).deleteFile(anyString());
+    }
+
+    @Test
+    void deleteIfUnreferenced_shouldOnlyRemoveObjectsWithoutImages() {
+        when(albumImageRepository.countByObjectKey("sha256/abc")).thenReturn(2L);
+
+        imageReferenceService.deleteIfUnreferenced("sha256/abc");
+
+        verify(albumImageRepository).lockObjectKey("sha256/abc");
+        verify(minioService, never()).deleteFile(anyString());
+    }
+
+    // Runs work as if inside a transaction, then ends it with the given outcome
+    private static void inTransaction(Runnable work, Consumer<TransactionSynchronization> outcome) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            TransactionSynchronizationManager.getSynchronizations().forEach(outcome);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.shedyhuseinsinkoc035209.service;
+
+import com.shedyhuseinsinkoc035209.entity.AlbumImage;
+import com.shedyhuseinsinkoc035209.exception.InfrastructureException;
+import com.shedyhuseinsinkoc035209.repository.AlbumImageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ImageRenditionServiceTest {
+
+    @Mock
+    private AlbumImageRepository albumImageRepository;
+
+    @Mock
+    private MinioService minioService;
+
+    @Mock
+    private ImageReferenceService imageReferenceService;
+
+    private ImageRenditionService imageRenditionService;
+
+    private UUID imageId;
+
+    @BeforeEach
+    void setUp() {
+        imageRenditionService = new ImageRenditionService(albumImageRepository, minioService, imageReferenceService, Runnable::run);
+        imageId = UUID.randomUUID();
+    }
+
+    @Test
+    void render_shouldFitLongestSideWithoutDistortingAspectRatio() throws IOException {
+        byte[] jpeg = ImageRenditionService.render(new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_ARGB), 256);
+
+        BufferedImage rendered = ImageIO.read(new ByteArrayInputStream(jpeg));
+        assertThat(rendered.getWidth()).isEqualTo(256);
+        assertThat(rendered.getHeight()).isEqualTo(128);
+    }
+
+    @Test
+    void render_shouldNotUpscaleSmallImages() throws IOException {
+        byte[] jpeg = ImageRenditionService.render(new BufferedImage(100, 80, BufferedImage.TYPE_INT_RGB), 256);
+
+        BufferedImage rendered = ImageIO.read(new ByteArrayInputStream(jpeg));
+        assertThat(rendered.getWidth()).isEqualTo(100);
+        assertThat(rendered.getHeight()).isEqualTo(80);
+    }
+
+    @Test
+    void generate_shouldStoreEveryRenditionAndRecordTheirKeys() throws IOException {
+        when(minioService.downloadFile("uuid_cover.png")).thenReturn(new ByteArrayInputStream(png(1600, 1200)));
+        when(albumImageRepository.updateRenditionObjectKeys(imageId, "uuid_cover.png.thumbnail.jpg", "uuid_cover.png.medium.jpg"))
+                .thenReturn(1);
+
+        imageRenditionService.generate(imageId, "uuid_cover.png");
+
+        ArgumentCaptor<byte[]> thumbnail = ArgumentCaptor.forClass(byte[].class);
+        verify(minioService).uploadBytes(eq("uuid_cover.png.thumbnail.jpg"), thumbnail.capture(), eq("image/jpeg"));
+        verify(minioService).uploadBytes(eq("uuid_cover.png.medium.jpg"), any(), eq("image/jpeg"));
+        assertThat(ImageIO.read(new ByteArrayInputStream(thumbnail.getValue())).getWidth()).isEqualTo(256);
+        verify(minioService, never()).deleteFile(anyString());
+    }
+
+    @Test
+    void generate_shouldRemoveRenditionsWhenImageWasDeletedMeanwhile() throws IOException {
+        when(minioService.downloadFile("uuid_cover.png")).thenReturn(new ByteArrayInputStream(png(400, 300)));
+        when(albumImageRepository.updateRenditionObjectKeys(imageId, "uuid_cover.png.thumbnail.jpg", "uuid_cover.png.medium.jpg"))
+                .thenReturn(0);
+
+        imageRenditionService.generate(imageId, "uuid_cover.png");
+
+        verify(imageReferenceService).deleteIfUnreferenced("uuid_cover.png");
+    }
+
+    @Test
+    void generate_shouldReuseRenditionsOfIdenticalContent() {
+        when(minioService.exists("sha256/abc.thumbnail.jpg")).thenReturn(true);
+        when(minioService.exists("sha256/abc.medium.jpg")).thenReturn(true);
+        when(albumImageRepository.updateRenditionObjectKeys(imageId, "sha256/abc.thumbnail.jpg", "sha256/abc.medium.jpg"))
+                .thenReturn(1);
+
+        imageRenditionService.generate(imageId, "sha256/abc");
+
+        verify(minioService, never()).downloadFile(anyString());
+        verify(minioService, never()).uploadBytes(anyString(), any(), anyString());
+    }
+
+    @Test
+    void generate_shouldKeepSharedRenditionsWhenAnUploadFails() throws IOException {
+        when(minioService.exists("sha256/abc.thumbnail.jpg")).thenReturn(false);
+        when(minioService.downloadFile("sha256/abc")).thenReturn(new ByteArrayInputStream(png(400, 300)));
+        doThrow(new InfrastructureException("Failed to upload file to MinIO", null))
+                .when(minioService).uploadBytes(eq("sha256/abc.medium.jpg"), any(), anyString());
+
+        imageRenditionService.generate(imageId, "sha256/abc");
+
+        verify(minioService, never()).deleteFile(anyString());
+        verify(albumImageRepository, never()).updateRenditionObjectKeys(any(), any(), any());
+    }
+
+    @Test
+    void generate_shouldRemovePartialRenditionsWhenAnUploadFails() throws IOException {
+        when(minioService.downloadFile("uuid_cover.png")).thenReturn(new ByteArrayInputStream(png(400, 300)));
+        doThrow(new InfrastructureException("Failed to upload file to MinIO", null))
+                .when(minioService).uploadBytes(eq("uuid_cover.png.medium.jpg"), any(), anyString());
+
+        imageRenditionService.generate(imageId, "uuid_cover.png");
+
+        verify(minioService).deleteFile("uuid_cover.png.thumbnail.jpg");
+        verify(albumImageRepository, never()).updateRenditionObjectKeys(any(), any(), any());
+    }
+
+    @Test
+    void generate_shouldSkipFormatsWithoutDecoder() {
+        when(minioService.downloadFile("uuid_cover.webp")).thenReturn(new ByteArrayInputStream("not an image".getBytes()));
+
+        imageRenditionService.generate(imageId, "uuid_cover.webp");
+
+        verify(minioService, never()).uploadBytes(anyString(), any(), anyString());
+        verify(albumImageRepository, never()).updateRenditionObjectKeys(any(), any(), any());
+    }
+
+    @Test
+    void generateAsync_shouldNotFailUploadWhenQueueIsFull() {
+        ImageRenditionService saturated = new ImageRenditionService(albumImageRepository, minioService, imageReferenceService, task -> {
+            throw new RejectedExecutionException("queue full");
+        });
+
+        saturated.generateAsync(new AlbumImage(imageId, null, "cover.png", "uuid_cover.png", "image/png"));
+
+        verify(minioService, never()).downloadFile(anyString());
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB), "png", outputStream);
+        return outputStream.toByteArray();
+    }
+}
@@ -1,40 +1,67 @@
 package com.shedyhuseinsinkoc035209.service;
 
+import com.shedyhuseinsinkoc035209.dto.StoredObject;
 import com.shedyhuseinsinkoc035209.exception.InfrastructureException;
+import com.shedyhuseinsinkoc035209.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.minio.BucketExistsArgs;
+import io.minio.CopyObjectArgs;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
 import io.minio.GetPresignedObjectUrlArgs;
 import io.minio.MakeBucketArgs;
 import io.minio.MinioClient;
+import io.minio.PostPolicy;
 import io.minio.PutObjectArgs;
 import io.minio.RemoveObjectArgs;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
+import io.minio.messages.ErrorResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class MinioServiceTest {
 
+    // sha256("data")
+    private static final String DATA_KEY = "sha256/3a6eb0790f39ac87c94f3856b2dd2c5d110e6811602261a9a923d3bb23adc8b7";
+
     @Mock
     private MinioClient minioClient;
 
+    private SimpleMeterRegistry meterRegistry;
     private MinioService minioService;
 
     @BeforeEach
     void setUp() {
-        minioService = new MinioService(minioClient);
+        meterRegistry = new SimpleMeterRegistry();
+        minioService = new MinioService(minioClient, meterRegistry, Duration.ofMinutes(30), Duration.ofMinutes(15), Duration.ofMinutes(5), 100, 100);
+        ReflectionTestUtils.setField(minioService, "endpoint", "http://minio:9000");
         ReflectionTestUtils.setField(minioService, "bucket", "album-images");
+        ReflectionTestUtils.setField(minioService, "uploadPartSize", DataSize.ofMegabytes(8));
     }
 
     @Test
@@ -65,19 +92,34 @@ class MinioServiceTest {
     }
 
     @Test
-    void uploadFile_shouldReturnObjectKey() throws Exception {
+    void uploadFile_shouldStoreUnderContentHash() throws Exception {
         MockMultipartFile file = new MockMultipartFile("file", "test.jpg", "image/jpeg", "data".getBytes());
-        when(minioClient.putObject(any(PutObjectArgs.class))).thenReturn(null);
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenThrow(noSuchKey());
+
+        String objectKey = minioService.uploadFile(file);
+
+        assertThat(objectKey).isEqualTo(DATA_KEY);
+        ArgumentCaptor<PutObjectArgs> captor = ArgumentCaptor.forClass(PutObjectArgs.class);
+        verify(minioClient).putObject(captor.capture());
+        assertThat(captor.getValue().object()).isEqualTo(DATA_KEY);
+    }
+
+    @Test
+    void uploadFile_shouldSkipUploadOfKnownContent() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "other-name.jpg", "image/jpeg", "data".getBytes());
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenReturn(mock(StatObjectResponse.class));
 
         String objectKey = minioService.uploadFile(file);
 
-        assertThat(objectKey).contains("test.jpg");
-        verify(minioClient).putObject(any(PutObjectArgs.class));
+        assertThat(objectKey).isEqualTo(DATA_KEY);
+        verify(minioClient, never()).putObject(any(PutObjectArgs.class));
+        assertThat(meterRegistry.get(MinioService.DEDUPLICATED_UPLOADS_METRIC).counter().count()).isEqualTo(1.0);
     }
 
     @Test
     void uploadFile_shouldThrowOnError() throws Exception {
         MockMultipartFile file = new MockMultipartFile("file", "test.jpg", "image/jpeg", "data".getBytes());
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenThrow(noSuchKey());
         when(minioClient.putObject(any(PutObjectArgs.class))).thenThrow(new RuntimeException("Upload failed"));
 
         assertThatThrownBy(() -> minioService.uploadFile(file))
@@ -85,6 +127,71 @@ class MinioServiceTest {
                 .hasMessageContaining("Failed to upload file to MinIO");
     }
 
+    @Test
+    void uploadStream_shouldSendUnknownSizeStreamInConfiguredPartsAndReturnContentKey() throws Exception {
+        when(minioClient.putObject(any(PutObjectArgs.class))).thenAnswer(invocation -> {
+            invocation.getArgument(0, PutObjectArgs.class).stream().readAllBytes();
+            return null;
+        });
+
+        String objectKey = minioService.uploadStream("staging/1", new ByteArrayInputStream("data".getBytes()), "image/png");
+
+        assertThat(objectKey).isEqualTo(DATA_KEY);
+        ArgumentCaptor<PutObjectArgs> captor = ArgumentCaptor.forClass(PutObjectArgs.class);
+        verify(minioClient).putObject(captor.capture());
+        assertThat(captor.getValue().object()).isEqualTo("staging/1");
+        assertThat(captor.getValue().objectSize()).isEqualTo(-1);
+        assertThat(captor.getValue().partSize()).isEqualTo(DataSize.ofMegabytes(8).toBytes());
+        assertThat(captor.getValue().contentType()).isEqualTo("image/png");
+    }
+
+    @Test
+    void uploadStream_shouldThrowOnError() throws Exception {
+        when(minioClient.putObject(any(PutObjectArgs.class))).thenThrow(new RuntimeException("Upload failed"));
+
+        assertThatThrownBy(() -> minioService.uploadStream("staging/1", new ByteArrayInputStream(new byte[0]), "image/png"))
+                .isInstanceOf(InfrastructureException.class)
+                .hasMessageContaining("Failed to upload file to MinIO");
+    }
+
+    @Test
+    void copyIfAbsent_shouldCopyStagedObjectToContentKey() throws Exception {
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenThrow(noSuchKey());
+
+        minioService.copyIfAbsent("staging/1", DATA_KEY);
+
+        ArgumentCaptor<CopyObjectArgs> captor = ArgumentCaptor.forClass(CopyObjectArgs.class);
+        verify(minioClient).copyObject(captor.capture());
+        assertThat(captor.getValue().object()).isEqualTo(DATA_KEY);
+        assertThat(captor.getValue().source().object()).isEqualTo("staging/1");
+    }
+
+    @Test
+    void copyIfAbsent_shouldSkipKnownContent() throws Exception {
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenReturn(mock(StatObjectResponse.class));
+
+        minioService.copyIfAbsent("staging/1", DATA_KEY);
+
+        verify(minioClient, never()).copyObject(any(CopyObjectArgs.class));
+        assertThat(meterRegistry.get(MinioService.DEDUPLICATED_UPLOADS_METRIC).counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void exists_shouldReportMissingObjects() throws Exception {
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenThrow(noSuchKey());
+
+        assertThat(minioService.exists("test.jpg")).isFalse();
+    }
+
+    @Test
+    void exists_shouldThrowOnOtherErrors() throws Exception {
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenThrow(new RuntimeException("Connection failed"));
+
+        assertThatThrownBy(() -> minioService.exists("test.jpg"))
+                .isInstanceOf(InfrastructureException.class)
+                .hasMessageContaining("Failed to read file metadata");
+    }
+
     @Test
     void getPresignedUrl_shouldReturnUrl() throws Exception {
         when(minioClient.getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class)))
@@ -105,6 +212,108 @@ class MinioServiceTest {
                 .hasMessageContaining("Failed to generate presigned URL");
     }
 
+    @Test
+    void getPresignedUrl_shouldSignOncePerObjectKey() throws Exception {
+        when(minioClient.getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class)))
+                .thenReturn("http://minio:9000/album-images/test.jpg?signature=abc");
+
+        minioService.getPresignedUrl("test.jpg");
+        String url = minioService.getPresignedUrl("test.jpg");
+
+        assertThat(url).isEqualTo("http://minio:9000/album-images/test.jpg?signature=abc");
+        verify(minioClient, times(1)).getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class));
+        assertThat(meterRegistry.get("cache.gets").tag("cache", MinioService.PRESIGNED_URL_CACHE_NAME)
+                .tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void getPresignedUrl_shouldSignAgainAfterDelete() throws Exception {
+        when(minioClient.getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class)))
+                .thenReturn("http://minio:9000/album-images/test.jpg?signature=abc");
+
+        minioService.getPresignedUrl("test.jpg");
+        minioService.deleteFile("test.jpg");
+        minioService.getPresignedUrl("test.jpg");
+
+        verify(minioClient, times(2)).getPresignedObjectUrl(any(GetPresignedObjectUrlArgs.class));
+    }
+
+    @Test
+    void constructor_shouldRejectCacheTtlNotShorterThanExpiry() {
+        assertThatThrownBy(() -> new MinioService(minioClient, meterRegistry, Duration.ofMinutes(30), Duration.ofMinutes(30), Duration.ofMinutes(5), 100, 100))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("shorter than the URL expiry");
+    }
+
+    @Test
+    void getPresignedPostFormData_shouldReturnSignedFormFields() throws Exception {
+        when(minioClient.getPresignedPostFormData(any(PostPolicy.class))).thenReturn(Map.of("policy", "abc", "x-amz-signature", "def"));
+
+        Map<String, String> formData = minioService.getPresignedPostFormData("album/key_a.jpg", "image/jpeg", 1024,
+                ZonedDateTime.now().plusMinutes(15));
+
+        assertThat(formData).containsEntry("policy", "abc").containsEntry("x-amz-signature", "def");
+        assertThat(minioService.getBucketUrl()).isEqualTo("http://minio:9000/album-images");
+    }
+
+    @Test
+    void getPresignedPostFormData_shouldThrowOnError() throws Exception {
+        when(minioClient.getPresignedPostFormData(any(PostPolicy.class))).thenThrow(new RuntimeException("Signing failed"));
+
+        assertThatThrownBy(() -> minioService.getPresignedPostFormData("album/key_a.jpg", "image/jpeg", 1024,
+                ZonedDateTime.now().plusMinutes(15)))
+                .isInstanceOf(InfrastructureException.class)
+                .hasMessageContaining("Failed to generate presigned upload policy");
+    }
+
+    @Test
+    void statFile_shouldReturnMetadataAndStatOncePerObjectKey() throws Exception {
+        StatObjectResponse stat = mock(StatObjectResponse.class);
+        ZonedDateTime lastModified = ZonedDateTime.parse("2024-05-01T10:15:30Z");
+        when(stat.contentType()).thenReturn("image/jpeg");
+        when(stat.size()).thenReturn(4L);
+        when(stat.etag()).thenReturn("abc");
+        when(stat.lastModified()).thenReturn(lastModified);
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenReturn(stat);
+
+        minioService.statFile("test.jpg");
+        StoredObject object = minioService.statFile("test.jpg");
+
+        assertThat(object).isEqualTo(new StoredObject("test.jpg", "image/jpeg", 4, "abc", lastModified.toInstant()));
+        verify(minioClient, times(1)).statObject(any(StatObjectArgs.class));
+    }
+
+    @Test
+    void statFile_shouldThrowNotFoundWhenObjectIsMissing() throws Exception {
+        when(minioClient.statObject(any(StatObjectArgs.class))).thenThrow(noSuchKey());
+
+        assertThatThrownBy(() -> minioService.statFile("test.jpg"))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("File not found in MinIO");
+    }
+
+    @Test
+    void openFile_shouldRequestOnlyTheGivenRange() throws Exception {
+        GetObjectResponse response = mock(GetObjectResponse.class);
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenReturn(response);
+
+        assertThat(minioService.openFile("test.jpg", 10, 20)).isSameAs(response);
+
+        ArgumentCaptor<GetObjectArgs> args = ArgumentCaptor.forClass(GetObjectArgs.class);
+        verify(minioClient).getObject(args.capture());
+        assertThat(args.getValue().offset()).isEqualTo(10L);
+        assertThat(args.getValue().length()).isEqualTo(20L);
+    }
+
+    @Test
+    void openFile_shouldThrowOnError() throws Exception {
+        when(minioClient.getObject(any(GetObjectArgs.class))).thenThrow(new RuntimeException("Read failed"));
+
+        assertThatThrownBy(() -> minioService.openFile("test.jpg", 0, 4))
+                .isInstanceOf(InfrastructureException.class)
+                .hasMessageContaining("Failed to read file from MinIO");
+    }
+
     @Test
     void deleteFile_shouldRemoveObject() throws Exception {
         minioService.deleteFile("test.jpg");
@@ -120,4 +329,10 @@ class MinioServiceTest {
                 .isInstanceOf(InfrastructureException.class)
                 .hasMessageContaining("Failed to delete file from MinIO");
     }
+
+    private static ErrorResponseException noSuchKey() {
+        ErrorResponse error = new ErrorResponse("NoSuchKey", "Object does not exist", "album-images", "test.jpg",
+                "/album-images/test.jpg", null, null);
+        return new ErrorResponseException(error, null, null);
+    }
 }
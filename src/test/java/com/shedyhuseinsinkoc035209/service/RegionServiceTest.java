@@ -2,22 +2,31 @@ package com.shedyhuseinsinkoc035209.service;
 
 import com.shedyhuseinsinkoc035209.client.RegionExternalClient;
 import com.shedyhuseinsinkoc035209.dto.RegionExternalDto;
+import com.shedyhuseinsinkoc035209.dto.RegionFetchResult;
+import com.shedyhuseinsinkoc035209.dto.RegionSyncResult;
+import com.shedyhuseinsinkoc035209.dto.RegionValidators;
 import com.shedyhuseinsinkoc035209.entity.Region;
+import com.shedyhuseinsinkoc035209.entity.RegionSyncState;
 import com.shedyhuseinsinkoc035209.exception.ExternalApiException;
 import com.shedyhuseinsinkoc035209.repository.RegionRepository;
+import com.shedyhuseinsinkoc035209.repository.RegionSyncStateRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -30,90 +39,110 @@ class RegionServiceTest {
     @Mock
     private RegionExternalClient regionExternalClient;
 
+    @Mock
+    private RegionSyncStateRepository regionSyncStateRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private RegionService regionService;
 
-    @Test
-    void findAll_shouldReturnAllRegions() {
-        Region region1 = new Region(1, "Sul", true);
-        Region region2 = new Region(2, "Norte", false);
-        when(regionRepository.findAll()).thenReturn(List.of(region1, region2));
-
-        List<Region> result = regionService.findAll();
+    private final RegionSyncState state = new RegionSyncState("\"v1\"", null, "hash-v1", 1L);
 
-        assertThat(result).hasSize(2);
-        verify(regionRepository).findAll();
+    @BeforeEach
+    void setUp() {
+        lenient().when(regionSyncStateRepository.findState()).thenReturn(state);
     }
 
     @Test
-    void findAllActive_shouldReturnOnlyActiveRegions() {
-        Region region = new Region(1, "Sul", true);
-        when(regionRepository.findByActiveTrue()).thenReturn(List.of(region));
-
-        List<Region> result = regionService.findAllActive();
-
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getActive()).isTrue();
-        verify(regionRepository).findByActiveTrue();
+    void synchronize_shouldApplyExternalListWithOneUpdateAndOneInsert() {
+        Region active = new Region(10, "Nordeste", true);
+        RegionFetchResult fetched = new RegionFetchResult(List.of(
+                new RegionExternalDto(10, "Nordeste"), new RegionExternalDto(20, "Sul Atualizado")), "\"v2\"", null, "hash");
+        when(regionExternalClient.fetchRegions(state.validators())).thenReturn(fetched);
+        when(regionRepository.deactivateAllNotIn(new Integer[]{10, 20}, new String[]{"Nordeste", "Sul Atualizado"})).thenReturn(1);
+        when(regionRepository.insertActiveMissing(new Integer[]{10, 20}, new String[]{"Nordeste", "Sul Atualizado"})).thenReturn(1);
+        when(regionRepository.findByActiveTrue()).thenReturn(List.of(active));
+
+        RegionSyncResult result = regionService.synchronize();
+
+        assertThat(result).isEqualTo(new RegionSyncResult(List.of(active), 1, 1));
+        verify(regionRepository, never()).save(any(Region.class));
+        InOrder order = inOrder(regionRepository, regionSyncStateRepository, regionExternalClient, transactionManager);
+        order.verify(regionSyncStateRepository).findState();
+        order.verify(regionExternalClient).fetchRegions(new RegionValidators("\"v1\"", null, "hash-v1"));
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(regionRepository).lockSynchronization();
+        order.verify(regionSyncStateRepository).findState();
+        order.verify(regionSyncStateRepository).markApplied("\"v2\"", null, "hash");
+        order.verify(transactionManager).commit(any());
     }
 
     @Test
-    void synchronize_shouldInsertNewRegions() {
-        RegionExternalDto externalDto = new RegionExternalDto(10, "Nordeste");
-        when(regionExternalClient.fetchRegions()).thenReturn(List.of(externalDto));
-        when(regionRepository.findByActiveTrue()).thenReturn(List.of());
-
-        regionService.synchronize();
-
-        verify(regionRepository).save(any(Region.class));
+    void synchronize_shouldSkipDiffWhenAnotherInstanceAppliedSameListMeanwhile() {
+        Region active = new Region(10, "Nordeste", true);
+        when(regionExternalClient.fetchRegions(state.validators())).thenReturn(
+                new RegionFetchResult(List.of(new RegionExternalDto(10, "Nordeste")), "\"v2\"", null, "hash-v2"));
+        when(regionSyncStateRepository.findState()).thenReturn(state, new RegionSyncState("\"v2\"", null, "hash-v2", 2L));
+        when(regionRepository.findByActiveTrue()).thenReturn(List.of(active));
+
+        RegionSyncResult result = regionService.synchronize();
+
+        assertThat(result).isEqualTo(new RegionSyncResult(List.of(active), 0, 0));
+        verify(regionRepository).lockSynchronization();
+        verify(regionRepository, never()).deactivateAllNotIn(any(), any());
+        verify(regionSyncStateRepository, never()).markApplied(any(), any(), any());
     }
 
     @Test
-    void synchronize_shouldDeactivateRemovedRegions() {
-        Region activeRegion = new Region(1, "Sul", true);
-        when(regionExternalClient.fetchRegions()).thenReturn(List.of());
-        when(regionRepository.findByActiveTrue()).thenReturn(List.of(activeRegion));
-
-        regionService.synchronize();
-
-        assertThat(activeRegion.getActive()).isFalse();
-        verify(regionRepository).save(activeRegion);
+    void synchronize_shouldSkipDiffWhenListIsUnchanged() {
+        Region active = new Region(10, "Nordeste", true);
+        when(regionExternalClient.fetchRegions(state.validators())).thenReturn(RegionFetchResult.unchanged());
+        when(regionRepository.findByActiveTrue()).thenReturn(List.of(active));
+
+        RegionSyncResult result = regionService.synchronize();
+
+        assertThat(result).isEqualTo(new RegionSyncResult(List.of(active), 0, 0));
+        verify(transactionManager, never()).getTransaction(any());
+        verify(regionRepository, never()).lockSynchronization();
+        verify(regionRepository, never()).deactivateAllNotIn(any(), any());
+        verify(regionRepository, never()).insertActiveMissing(any(), any());
+        verify(regionSyncStateRepository, never()).markApplied(any(), any(), any());
     }
 
     @Test
-    void synchronize_shouldHandleNameChange() {
-        Region existingRegion = new Region(1, "Sul", true);
-        RegionExternalDto externalDto = new RegionExternalDto(1, "Sul Atualizado");
-        when(regionExternalClient.fetchRegions()).thenReturn(List.of(externalDto));
-        when(regionRepository.findByActiveTrue()).thenReturn(List.of(existingRegion));
+    void synchronize_shouldKeepFirstEntryWhenIdIsListedTwice() {
+        when(regionExternalClient.fetchRegions(state.validators())).thenReturn(RegionFetchResult.changed(List.of(
+                new RegionExternalDto(10, "Nordeste"), new RegionExternalDto(10, "Nordeste Duplicado"))));
 
         regionService.synchronize();
 
-        assertThat(existingRegion.getActive()).isFalse();
-        verify(regionRepository, times(2)).save(any(Region.class));
+        verify(regionRepository).deactivateAllNotIn(new Integer[]{10}, new String[]{"Nordeste"});
+        verify(regionRepository).insertActiveMissing(new Integer[]{10}, new String[]{"Nordeste"});
     }
 
     @Test
-    void synchronize_shouldDoNothingWhenRegionExistsWithSameName() {
-        Region existingRegion = new Region(1, "Sul", true);
-        RegionExternalDto externalDto = new RegionExternalDto(1, "Sul");
-        when(regionExternalClient.fetchRegions()).thenReturn(List.of(externalDto));
-        when(regionRepository.findByActiveTrue()).thenReturn(List.of(existingRegion));
+    void synchronize_shouldDeactivateEverythingWhenExternalListIsEmpty() {
+        when(regionExternalClient.fetchRegions(state.validators())).thenReturn(RegionFetchResult.changed(List.of()));
 
         regionService.synchronize();
 
-        assertThat(existingRegion.getActive()).isTrue();
-        verify(regionRepository, never()).save(any(Region.class));
+        verify(regionRepository).deactivateAllNotIn(new Integer[0], new String[0]);
+        verify(regionRepository).insertActiveMissing(new Integer[0], new String[0]);
     }
 
     @Test
     void synchronize_shouldThrowWhenApiFails() {
-        when(regionExternalClient.fetchRegions()).thenThrow(new ExternalApiException("Failed to fetch regions from external API"));
+        when(regionExternalClient.fetchRegions(state.validators())).thenThrow(new ExternalApiException("Failed to fetch regions from external API"));
 
         assertThatThrownBy(() -> regionService.synchronize())
                 .isInstanceOf(ExternalApiException.class)
                 .hasMessage("Failed to fetch regions from external API");
 
-        verify(regionRepository, never()).save(any());
+        verify(transactionManager, never()).getTransaction(any());
+        verify(regionRepository, never()).deactivateAllNotIn(any(), any());
+        verify(regionRepository, never()).insertActiveMissing(any(), any());
+        verify(regionSyncStateRepository, never()).markApplied(any(), any(), any());
     }
 }
@@ -0,0 +1,158 @@
+package com.shedyhuseinsinkoc035209.service;
+
+import com.shedyhuseinsinkoc035209.dto.RegionSnapshot;
+import com.shedyhuseinsinkoc035209.entity.Region;
+import com.shedyhuseinsinkoc035209.repository.RegionRepository;
+import com.shedyhuseinsinkoc035209.repository.RegionSyncStateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RegionSnapshotCacheTest {
+
+    @Mock
+    private RegionRepository regionRepository;
+
+    @Mock
+    private RegionSyncStateRepository regionSyncStateRepository;
+
+    private RegionSnapshotCache regionSnapshotCache;
+
+    @BeforeEach
+    void setUp() {
+        regionSnapshotCache = cache(Duration.ofHours(1));
+    }
+
+    @Test
+    void active_shouldLoadOnceAndServeSerializedActiveRegionsFromMemory() {
+        when(regionRepository.findAll(Sort.by("id"))).thenReturn(List.of(
+                new Region(1, "Sul", true), new Region(2, "Norte", false)));
+
+        RegionSnapshot first = regionSnapshotCache.active();
+        RegionSnapshot second = regionSnapshotCache.active();
+
+        assertThat(second).isSameAs(first);
+        assertThat(new String(first.body(), StandardCharsets.UTF_8))
+                .contains("\"externalId\":1", "\"name\":\"Sul\"", "\"active\":true")
+                .doesNotContain("Norte");
+        assertThat(first.etag()).hasSize(64);
+        verify(regionRepository, times(1)).findAll(Sort.by("id"));
+    }
+
+    @Test
+    void all_shouldIncludeInactiveRegionsWithItsOwnEtag() {
+        when(regionRepository.findAll(Sort.by("id"))).thenReturn(List.of(
+                new Region(1, "Sul", true), new Region(2, "Norte", false)));
+
+        RegionSnapshot all = regionSnapshotCache.all();
+
+        assertThat(new String(all.body(), StandardCharsets.UTF_8)).contains("\"Sul\"", "\"Norte\"");
+        assertThat(all.etag()).isNotEqualTo(regionSnapshotCache.active().etag());
+    }
+
+    @Test
+    void refresh_shouldSwapSnapshotAndChangeEtagOnlyWhenContentChanges() {
+        when(regionRepository.findAll(Sort.by("id")))
+                .thenReturn(List.of(new Region(1, "Sul", true)))
+                .thenReturn(List.of(new Region(1, "Sul", true)))
+                .thenReturn(List.of(new Region(1, "Sul", false), new Region(1, "Sul Atualizado", true)));
+
+        RegionSnapshot initial = regionSnapshotCache.active();
+        regionSnapshotCache.refresh();
+        RegionSnapshot unchanged = regionSnapshotCache.active();
+        regionSnapshotCache.refresh();
+        RegionSnapshot changed = regionSnapshotCache.active();
+
+        assertThat(unchanged).isNotSameAs(initial);
+        assertThat(unchanged.etag()).isEqualTo(initial.etag());
+        assertThat(changed.etag()).isNotEqualTo(initial.etag());
+        assertThat(new String(changed.body(), StandardCharsets.UTF_8)).contains("Sul Atualizado");
+    }
+
+    @Test
+    void refresh_shouldDropSnapshotWhenLoadFailsSoNextReadRetries() {
+        when(regionRepository.findAll(Sort.by("id")))
+                .thenReturn(List.of(new Region(1, "Sul", true)))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(List.of(new Region(2, "Norte", true)));
+        regionSnapshotCache.active();
+
+        assertThatThrownBy(() -> regionSnapshotCache.refresh())
+                .isInstanceOf(IllegalStateException.class);
+
+        assertThat(new String(regionSnapshotCache.active().body(), StandardCharsets.UTF_8)).contains("Norte");
+    }
+
+    @Test
+    void active_shouldNotCheckVersionWithinInterval() {
+        when(regionRepository.findAll(Sort.by("id"))).thenReturn(List.of(new Region(1, "Sul", true)));
+
+        regionSnapshotCache.active();
+        regionSnapshotCache.active();
+        regionSnapshotCache.all();
+
+        verify(regionSyncStateRepository, times(1)).findVersion();
+    }
+
+    @Test
+    void active_shouldReloadWhenAnotherInstanceAppliedASynchronization() {
+        regionSnapshotCache = cache(Duration.ZERO);
+        when(regionSyncStateRepository.findVersion()).thenReturn(1L, 1L, 2L);
+        when(regionRepository.findAll(Sort.by("id")))
+                .thenReturn(List.of(new Region(1, "Sul", true)))
+                .thenReturn(List.of(new Region(1, "Sul Atualizado", true)));
+
+        RegionSnapshot initial = regionSnapshotCache.active();
+        RegionSnapshot sameVersion = regionSnapshotCache.active();
+        RegionSnapshot newVersion = regionSnapshotCache.active();
+
+        assertThat(sameVersion).isSameAs(initial);
+        assertThat(new String(newVersion.body(), StandardCharsets.UTF_8)).contains("Sul Atualizado");
+        verify(regionRepository, times(2)).findAll(Sort.by("id"));
+    }
+
+    @Test
+    void active_shouldKeepServingSnapshotWhenVersionCheckFails() {
+        regionSnapshotCache = cache(Duration.ZERO);
+        when(regionSyncStateRepository.findVersion())
+                .thenReturn(1L)
+                .thenThrow(new IllegalStateException("database unavailable"));
+        when(regionRepository.findAll(Sort.by("id"))).thenReturn(List.of(new Region(1, "Sul", true)));
+
+        RegionSnapshot initial = regionSnapshotCache.active();
+
+        assertThat(regionSnapshotCache.active()).isSameAs(initial);
+    }
+
+    @Test
+    void onApplicationReady_shouldNotFailStartupWhenLoadFails() {
+        when(regionRepository.findAll(Sort.by("id")))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(List.of(new Region(1, "Sul", true)));
+
+        assertThatCode(() -> regionSnapshotCache.onApplicationReady()).doesNotThrowAnyException();
+
+        assertThat(new String(regionSnapshotCache.active().body(), StandardCharsets.UTF_8)).contains("Sul");
+    }
+
+    private RegionSnapshotCache cache(Duration versionCheckInterval) {
+        return new RegionSnapshotCache(regionRepository, regionSyncStateRepository, JsonMapper.builder().build(),
+                versionCheckInterval);
+    }
+}
@@ -0,0 +1,179 @@
+package com.shedyhuseinsinkoc035209.service;
+
+import com.shedyhuseinsinkoc035209.dto.RegionSyncResult;
+import com.shedyhuseinsinkoc035209.entity.Region;
+import com.shedyhuseinsinkoc035209.exception.ExternalApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RegionSyncCoordinatorTest {
+
+    @Mock
+    private RegionService regionService;
+
+    @Mock
+    private RegionSnapshotCache regionSnapshotCache;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RegionSyncCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coordinator = coordinator(true, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void synchronize_shouldRecordDurationChangesAndLastSuccess() {
+        RegionSyncResult result = new RegionSyncResult(List.of(new Region(1, "Sul", true)), 2, 3);
+        when(regionService.synchronize()).thenReturn(result);
+
+        assertThat(coordinator.synchronize()).isSameAs(result);
+
+        assertThat(meterRegistry.get(RegionSyncCoordinator.DURATION_METRIC).tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(RegionSyncCoordinator.CHANGES_METRIC).tag("change", "deactivated").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get(RegionSyncCoordinator.CHANGES_METRIC).tag("change", "inserted").counter().count()).isEqualTo(3.0);
+        assertThat(meterRegistry.get(RegionSyncCoordinator.LAST_SUCCESS_METRIC).gauge().value())
+                .isCloseTo(Instant.now().getEpochSecond(), offset(5.0));
+    }
+
+    @Test
+    void synchronize_shouldRecordFailureWithoutLastSuccess() {
+        when(regionService.synchronize()).thenThrow(new ExternalApiException("Failed to fetch regions from external API"));
+
+        assertThatThrownBy(() -> coordinator.synchronize())
+                .isInstanceOf(ExternalApiException.class);
+
+        assertThat(meterRegistry.get(RegionSyncCoordinator.DURATION_METRIC).tag("outcome", "failure").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(RegionSyncCoordinator.LAST_SUCCESS_METRIC).gauge().value()).isNaN();
+        verify(regionSnapshotCache, never()).refresh();
+    }
+
+    @Test
+    void synchronize_shouldRefreshSnapshotAndKeepResultWhenRefreshFails() {
+        RegionSyncResult result = new RegionSyncResult(List.of(), 0, 1);
+        when(regionService.synchronize()).thenReturn(result);
+        doThrow(new IllegalStateException("database unavailable")).when(regionSnapshotCache).refresh();
+
+        assertThat(coordinator.synchronize()).isSameAs(result);
+
+        verify(regionSnapshotCache).refresh();
+    }
+
+    @Test
+    void synchronize_shouldCoalesceConcurrentTriggersIntoRunningSynchronization() throws Exception {
+        RegionSyncResult result = new RegionSyncResult(List.of(), 0, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(regionService.synchronize()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return result;
+        });
+
+        CompletableFuture<RegionSyncResult> first = CompletableFuture.supplyAsync(coordinator::synchronize);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<RegionSyncResult> second = CompletableFuture.supplyAsync(coordinator::synchronize);
+        while (meterRegistry.get(RegionSyncCoordinator.COALESCED_METRIC).counter().count() < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(result);
+        assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(result);
+        verify(regionService, times(1)).synchronize();
+        verify(regionSnapshotCache, times(1)).refresh();
+    }
+
+    @Test
+    void synchronize_shouldStartNewRunOnceThePreviousOneFinished() {
+        when(regionService.synchronize()).thenReturn(new RegionSyncResult(List.of(), 0, 0));
+
+        coordinator.synchronize();
+        coordinator.synchronize();
+
+        verify(regionService, times(2)).synchronize();
+        assertThat(meterRegistry.get(RegionSyncCoordinator.COALESCED_METRIC).counter().count()).isZero();
+    }
+
+    @Test
+    void nextDelay_shouldAddJitterWithinBounds() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(coordinator.nextDelay()).isBetween(Duration.ofHours(1), Duration.ofHours(1).plusMinutes(5));
+        }
+    }
+
+    @Test
+    void nextDelay_shouldBeExactIntervalWithoutJitter() {
+        assertThat(coordinator(true, Duration.ZERO).nextDelay()).isEqualTo(Duration.ofHours(1));
+    }
+
+    @Test
+    void start_shouldScheduleFirstRunAfterInterval() {
+        coordinator.start();
+
+        ArgumentCaptor<Long> delay = ArgumentCaptor.forClass(Long.class);
+        verify(scheduler).schedule(any(Runnable.class), delay.capture(), eq(TimeUnit.MILLISECONDS));
+        assertThat(delay.getValue()).isBetween(Duration.ofHours(1).toMillis(), Duration.ofMinutes(65).toMillis());
+    }
+
+    @Test
+    void start_shouldRescheduleAfterScheduledRunEvenWhenItFails() {
+        when(regionService.synchronize()).thenThrow(new ExternalApiException("Failed to fetch regions from external API"));
+        coordinator.start();
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(task.capture(), anyLong(), eq(TimeUnit.MILLISECONDS));
+
+        task.getValue().run();
+
+        verify(scheduler, times(2)).schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void start_shouldNotScheduleWhenDisabled() {
+        coordinator(false, Duration.ofMinutes(5)).start();
+
+        verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any());
+    }
+
+    @Test
+    void constructor_shouldRejectNonPositiveInterval() {
+        assertThatThrownBy(() -> new RegionSyncCoordinator(regionService, regionSnapshotCache, new SimpleMeterRegistry(),
+                scheduler, true, Duration.ZERO, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private RegionSyncCoordinator coordinator(boolean scheduleEnabled, Duration jitter) {
+        return new RegionSyncCoordinator(regionService, regionSnapshotCache, meterRegistry, scheduler, scheduleEnabled,
+                Duration.ofHours(1), jitter);
+    }
+}
@@ -0,0 +1,45 @@
+package com.shedyhuseinsinkoc035209.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorCodecTest {
+
+    @Test
+    void encode_shouldRoundTripSortKeyAndId() {
+        UUID id = UUID.randomUUID();
+
+        CursorCodec.Cursor cursor = CursorCodec.decode(CursorCodec.encode("Guns N' Roses: Live", id));
+
+        assertThat(cursor.sortKey()).isEqualTo("Guns N' Roses: Live");
+        assertThat(cursor.id()).isEqualTo(id);
+    }
+
+    @Test
+    void encode_shouldProduceUrlSafeToken() {
+        String cursor = CursorCodec.encode("Bem Sertanejo - (1ª Temporada) - EP", UUID.randomUUID());
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void decode_shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> CursorCodec.decode("not a cursor"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void decode_shouldRejectCursorWithoutId() {
+        String cursor = Base64.getUrlEncoder().encodeToString("Harakiri".getBytes());
+
+        assertThatThrownBy(() -> CursorCodec.decode(cursor))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+}
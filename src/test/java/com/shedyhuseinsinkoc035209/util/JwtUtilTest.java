@@ -2,9 +2,8 @@ package com.shedyhuseinsinkoc035209.util;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.test.util.ReflectionTestUtils;
 
-import java.util.Date;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -14,15 +13,12 @@ class JwtUtilTest {
 
     @BeforeEach
     void setUp() {
-        jwtUtil = new JwtUtil();
-        ReflectionTestUtils.setField(jwtUtil, "secret", "mySuperSecretKeyForJwtTokenGenerationThatIsLongEnough123456");
-        ReflectionTestUtils.setField(jwtUtil, "expiration", 3600000L);
-        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", 86400000L);
+        jwtUtil = new JwtUtil("mySuperSecretKeyForJwtTokenGenerationThatIsLongEnough123456", 3600000L, 86400000L);
     }
 
     @Test
     void generateToken_shouldReturnValidToken() {
-        String token = jwtUtil.generateToken("admin");
+        String token = jwtUtil.generateToken("admin", "ADMIN");
 
         assertThat(token).isNotNull();
         assertThat(token).isNotEmpty();
@@ -37,64 +33,49 @@ class JwtUtilTest {
     }
 
     @Test
-    void extractUsername_shouldReturnCorrectUsername() {
-        String token = jwtUtil.generateToken("admin");
+    void verify_shouldReturnClaimsForAccessToken() {
+        String token = jwtUtil.generateToken("admin", "ADMIN");
 
-        String username = jwtUtil.extractUsername(token);
+        Optional<VerifiedToken> verified = jwtUtil.verify(token);
 
-        assertThat(username).isEqualTo("admin");
+        assertThat(verified).isPresent();
+        assertThat(verified.get().subject()).isEqualTo("admin");
+        assertThat(verified.get().role()).isEqualTo("ADMIN");
+        assertThat(verified.get().isRefreshToken()).isFalse();
+        assertThat(verified.get().expiresAt()).isAfter(verified.get().issuedAt());
     }
 
     @Test
-    void validateToken_shouldReturnTrueForValidToken() {
-        String token = jwtUtil.generateToken("admin");
-
-        boolean isValid = jwtUtil.validateToken(token);
-
-        assertThat(isValid).isTrue();
-    }
+    void verify_shouldReturnClaimsForRefreshToken() {
+        String token = jwtUtil.generateRefreshToken("admin");
 
-    @Test
-    void validateToken_shouldReturnFalseForInvalidToken() {
-        boolean isValid = jwtUtil.validateToken("invalid.token.here");
+        Optional<VerifiedToken> verified = jwtUtil.verify(token);
 
-        assertThat(isValid).isFalse();
+        assertThat(verified).isPresent();
+        assertThat(verified.get().isRefreshToken()).isTrue();
+        assertThat(verified.get().role()).isNull();
     }
 
     @Test
-    void validateToken_shouldReturnFalseForWrongSignature() {
-        JwtUtil otherJwtUtil = new JwtUtil();
-        ReflectionTestUtils.setField(otherJwtUtil, "secret", "anotherSecretKeyThatIsDifferentFromTheOriginalOne12345678");
-        ReflectionTestUtils.setField(otherJwtUtil, "expiration", 3600000L);
-        ReflectionTestUtils.setField(otherJwtUtil, "refreshExpiration", 86400000L);
-
-        String token = otherJwtUtil.generateToken("admin");
-
-        boolean isValid = jwtUtil.validateToken(token);
-
-        assertThat(isValid).isFalse();
+    void verify_shouldReturnEmptyForInvalidToken() {
+        assertThat(jwtUtil.verify("invalid.token.here")).isEmpty();
     }
 
     @Test
-    void extractExpiration_shouldReturnFutureDate() {
-        String token = jwtUtil.generateToken("admin");
+    void verify_shouldReturnEmptyForWrongSignature() {
+        JwtUtil otherJwtUtil = new JwtUtil("anotherSecretKeyThatIsDifferentFromTheOriginalOne12345678", 3600000L, 86400000L);
 
-        Date expiration = jwtUtil.extractExpiration(token);
+        String token = otherJwtUtil.generateToken("admin", "ADMIN");
 
-        assertThat(expiration).isAfter(new Date());
+        assertThat(jwtUtil.verify(token)).isEmpty();
     }
 
     @Test
-    void isRefreshToken_shouldReturnTrueForRefreshToken() {
-        String token = jwtUtil.generateRefreshToken("admin");
+    void verify_shouldReturnEmptyForExpiredToken() {
+        JwtUtil expiringJwtUtil = new JwtUtil("mySuperSecretKeyForJwtTokenGenerationThatIsLongEnough123456", -1000L, -1000L);
 
-        assertThat(jwtUtil.isRefreshToken(token)).isTrue();
-    }
-
-    @Test
-    void isRefreshToken_shouldReturnFalseForAccessToken() {
-        String token = jwtUtil.generateToken("admin");
+        String token = expiringJwtUtil.generateToken("admin", "ADMIN");
 
-        assertThat(jwtUtil.isRefreshToken(token)).isFalse();
+        assertThat(jwtUtil.verify(token)).isEmpty();
     }
 }
@@ -0,0 +1,18 @@
+package com.shedyhuseinsinkoc035209.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LikePatternTest {
+
+    @Test
+    void escape_shouldEscapeWildcardsAndTheEscapeCharacter() {
+        assertThat(LikePattern.escape("100%_\\")).isEqualTo("100\\%\\_\\\\");
+    }
+
+    @Test
+    void escape_shouldKeepPlainTermsUnchanged() {
+        assertThat(LikePattern.escape("Guns N' Roses")).isEqualTo("Guns N' Roses");
+    }
+}
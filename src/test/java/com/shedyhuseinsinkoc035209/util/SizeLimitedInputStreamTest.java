@@ -0,0 +1,41 @@
+package com.shedyhuseinsinkoc035209.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SizeLimitedInputStreamTest {
+
+    @Test
+    void read_shouldPassThroughStreamsWithinTheLimit() throws IOException {
+        SizeLimitedInputStream stream = new SizeLimitedInputStream(new ByteArrayInputStream(new byte[10]), 10);
+
+        assertThat(stream.readAllBytes()).hasSize(10);
+        assertThat(stream.isLimitExceeded()).isFalse();
+    }
+
+    @Test
+    void read_shouldFailOnceTheLimitIsPassed() {
+        SizeLimitedInputStream stream = new SizeLimitedInputStream(new ByteArrayInputStream(new byte[11]), 10);
+
+        assertThatThrownBy(stream::readAllBytes)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("10 bytes");
+        assertThat(stream.isLimitExceeded()).isTrue();
+    }
+
+    @Test
+    void read_shouldCountSingleByteReadsAndSkips() throws IOException {
+        SizeLimitedInputStream stream = new SizeLimitedInputStream(new ByteArrayInputStream(new byte[5]), 3);
+
+        stream.read();
+        stream.skip(2);
+
+        assertThatThrownBy(stream::read).isInstanceOf(IOException.class);
+        assertThat(stream.isLimitExceeded()).isTrue();
+    }
+}
@@ -0,0 +1,82 @@
+package com.shedyhuseinsinkoc035209.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class VerifiedTokenCacheTest {
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    private SimpleMeterRegistry meterRegistry;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        verifiedTokenCache = new VerifiedTokenCache(jwtUtil, meterRegistry, 100);
+    }
+
+    @Test
+    void verify_shouldParseOnceAndServeRepeatedTokensFromCache() {
+        VerifiedToken token = new VerifiedToken("admin", "access", "ADMIN", Instant.now(), Instant.now().plusSeconds(300));
+        when(jwtUtil.verify("valid-token")).thenReturn(Optional.of(token));
+
+        Optional<VerifiedToken> first = verifiedTokenCache.verify("valid-token");
+        Optional<VerifiedToken> second = verifiedTokenCache.verify("valid-token");
+
+        assertThat(first).contains(token);
+        assertThat(second).contains(token);
+        verify(jwtUtil, times(1)).verify("valid-token");
+    }
+
+    @Test
+    void verify_shouldNotCacheInvalidTokens() {
+        when(jwtUtil.verify("invalid-token")).thenReturn(Optional.empty());
+
+        assertThat(verifiedTokenCache.verify("invalid-token")).isEmpty();
+        assertThat(verifiedTokenCache.verify("invalid-token")).isEmpty();
+
+        verify(jwtUtil, times(2)).verify("invalid-token");
+    }
+
+    @Test
+    void verify_shouldNotCacheTokensPastTheirExpiration() {
+        VerifiedToken expired = new VerifiedToken("admin", "access", "ADMIN", Instant.now().minusSeconds(600),
+                Instant.now().minusSeconds(1));
+        when(jwtUtil.verify("expired-token")).thenReturn(Optional.of(expired));
+
+        verifiedTokenCache.verify("expired-token");
+        verifiedTokenCache.verify("expired-token");
+
+        verify(jwtUtil, times(2)).verify("expired-token");
+    }
+
+    @Test
+    void verify_shouldExposeHitAndMissMetrics() {
+        VerifiedToken token = new VerifiedToken("admin", "access", "ADMIN", Instant.now(), Instant.now().plusSeconds(300));
+        when(jwtUtil.verify("valid-token")).thenReturn(Optional.of(token));
+
+        verifiedTokenCache.verify("valid-token");
+        verifiedTokenCache.verify("valid-token");
+        verifiedTokenCache.verify("valid-token");
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", VerifiedTokenCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", VerifiedTokenCache.CACHE_NAME)
+                .tag("result", "miss").functionCounter().count()).isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,33 @@
+-- Enough rows for the planner to prefer indexes over sequential scans: 50 000 artists (one band in every thousand),
+-- 200 000 albums and one credit per album, so each artist has exactly four albums
+INSERT INTO artists (name, type)
+SELECT 'Plan Artist ' || g, CASE WHEN g % 1000 = 0 THEN 'BAND' ELSE 'SOLO' END
+FROM generate_series(1, 50000) AS g;
+
+INSERT INTO albums (title, release_year)
+SELECT 'Plan Album ' || g, 1950 + g % 75
+FROM generate_series(1, 200000) AS g;
+
+INSERT INTO artist_album (artist_id, album_id)
+SELECT ar.id, al.id
+FROM (SELECT id, row_number() OVER (ORDER BY id) AS rn FROM albums WHERE title LIKE 'Plan Album %') AS al
+JOIN (SELECT id, row_number() OVER (ORDER BY id) - 1 AS rn FROM artists WHERE name LIKE 'Plan Artist %') AS ar
+    ON ar.rn = al.rn % 50000;
+
+ANALYZE artists;
+ANALYZE albums;
+ANALYZE artist_album;
+
+-- One image per seeded album
+INSERT INTO album_images (album_id, file_name, object_key, content_type)
+SELECT id, 'cover.jpg', 'albums/' || id || '/cover.jpg', 'image/jpeg'
+FROM albums
+WHERE title LIKE 'Plan Album %';
+
+-- 2 500 active regions among 50 000 rows of renaming history
+INSERT INTO regions (external_id, name, active)
+SELECT g % 2500, 'Plan Region ' || g, g <= 2500
+FROM generate_series(1, 50000) AS g;
+
+ANALYZE album_images;
+ANALYZE regions;